@@ -0,0 +1,89 @@
+package com.example.AuthService.auth;
+
+import com.example.AuthService.entities.UserRoles;
+import com.example.AuthService.eventProducer.TokenRevocationProducer;
+import com.example.AuthService.repository.UserRolesRepository;
+import com.example.AuthService.service.AccessTokenRevocationList;
+import com.example.AuthService.service.AuthMetrics;
+import com.example.AuthService.service.CustomUserDetails;
+import com.example.AuthService.service.JwtKeyRing;
+import com.example.AuthService.service.JwtService;
+import com.example.AuthService.service.RoleDictionary;
+import com.example.AuthService.service.UserDetailsServiceImpl;
+import com.example.AuthService.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * One authenticated request through the filter. The user lookup is a mock, so the numbers cover
+ * token verification, the revocation check and principal construction, not the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean statelessPrincipal;
+
+    @Param({"true", "false"})
+    public boolean tokenCache;
+
+    private JwtAuthFilter filter;
+    private MockHttpServletRequest request;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtKeyRing keyRing = JwtKeyRing.fromSecret(JwtKeyRing.DEFAULT_KID, JwtService.SECRET_KEY);
+        JwtService jwtService = tokenCache
+                ? new JwtService(keyRing, new VerifiedTokenCache(true, 10_000, meterRegistry))
+                : new JwtService(keyRing);
+        UserDetails userDetails = new CustomUserDetails("testuser", "", List.of("ROLE_USER"));
+        UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
+        AccessTokenRevocationList revocationList = new AccessTokenRevocationList(mock(TokenRevocationProducer.class), meterRegistry);
+        UserRolesRepository userRolesRepository = mock(UserRolesRepository.class);
+        when(userRolesRepository.findAllByOrderByRoleIdAsc()).thenReturn(List.of(new UserRoles(1L, "role_user")));
+        filter = new JwtAuthFilter(jwtService, userDetailsService, revocationList, new AuthMetrics(meterRegistry),
+                new RoleDictionary(userRolesRepository), statelessPrincipal);
+        request = new MockHttpServletRequest("GET", "/ping");
+        request.addHeader("Authorization", "Bearer " + jwtService.GenerateToken(userDetails));
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
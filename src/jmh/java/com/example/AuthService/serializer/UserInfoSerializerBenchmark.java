@@ -0,0 +1,82 @@
+package com.example.AuthService.serializer;
+
+import com.example.AuthService.eventProducer.UserInfoEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original per-record ObjectMapper serialization with the shared JSON writer and the
+ * binary codec. Run with {@code ./gradlew jmh -Pjmh.includes=UserInfoSerializerBenchmark} and add
+ * {@code -prof gc} through jmh.profilers to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserInfoSerializerBenchmark {
+
+    private UserInfoEvent event;
+    private UserInfoSerializer jsonSerializer;
+    private UserInfoSerializer binarySerializer;
+    private UserInfoDeserializer deserializer;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        event = UserInfoEvent.builder()
+                .userId("5f0c2a5e-8d1b-4c7e-9a33-0a1b2c3d4e5f")
+                .firstName("Test")
+                .lastName("User")
+                .email("test@example.com")
+                .phoneNumber(1234567890L)
+                .build();
+        jsonSerializer = new UserInfoSerializer();
+        jsonSerializer.configure(Map.of(), false);
+        binarySerializer = new UserInfoSerializer();
+        binarySerializer.configure(Map.of(UserInfoSerializer.FORMAT_CONFIG, "binary"), false);
+        deserializer = new UserInfoDeserializer();
+        json = jsonSerializer.serialize("user_service", event);
+        binary = binarySerializer.serialize("user_service", event);
+    }
+
+    @Benchmark
+    public byte[] legacyObjectMapperPerRecord() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return objectMapper.writeValueAsString(event).getBytes();
+    }
+
+    @Benchmark
+    public byte[] sharedJsonWriter() {
+        return jsonSerializer.serialize("user_service", event);
+    }
+
+    @Benchmark
+    public byte[] binaryCodec() {
+        return binarySerializer.serialize("user_service", event);
+    }
+
+    @Benchmark
+    public UserInfoEvent readJson() {
+        return deserializer.deserialize("user_service", json);
+    }
+
+    @Benchmark
+    public UserInfoEvent readBinary() {
+        return deserializer.deserialize("user_service", binary);
+    }
+}
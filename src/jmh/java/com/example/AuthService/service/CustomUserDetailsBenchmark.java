@@ -0,0 +1,62 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.entities.UserRoles;
+import com.example.AuthService.repository.UserRolesRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of building the principal: from a loaded user's role ids on every cache miss, as
+ * UserDetailsServiceImpl does, and from token claims on every request when the stateless principal
+ * is enabled. Authority lists are
+ * shared, so neither path allocates granted authorities once warmed up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomUserDetailsBenchmark {
+
+    private static final List<String> TOKEN_AUTHORITIES = List.of("ADMIN", "USER");
+
+    private static final List<Long> ROLE_IDS = List.of(1L, 2L);
+
+    private static final String PASSWORD = "$2a$10$abcdefghijklmnopqrstuuJ3n0vJ4pX3m6Gx7b1ZlH9tR2sY8wQeO";
+
+    private RoleDictionary roleDictionary;
+
+    @Setup
+    public void setUp() {
+        UserRolesRepository userRolesRepository = mock(UserRolesRepository.class);
+        when(userRolesRepository.findAllByOrderByRoleIdAsc()).thenReturn(List.of(new UserRoles(1L, "user"), new UserRoles(2L, "admin")));
+        roleDictionary = new RoleDictionary(userRolesRepository);
+        roleDictionary.refresh();
+    }
+
+    @Benchmark
+    public CustomUserDetails construct() {
+        RoleSet roles = roleDictionary.encode(ROLE_IDS);
+        return new CustomUserDetails("testuser", PASSWORD, roles, roleDictionary.authorities(roles));
+    }
+
+    @Benchmark
+    public CustomUserDetails fromToken() {
+        return CustomUserDetails.fromToken("testuser", TOKEN_AUTHORITIES);
+    }
+}
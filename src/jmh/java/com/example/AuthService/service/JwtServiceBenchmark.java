@@ -0,0 +1,74 @@
+package com.example.AuthService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token minting and the two verification paths: a full signature check on every call, and the
+ * verified-token cache that the filter normally goes through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService uncached;
+    private JwtService cached;
+    private List<GrantedAuthority> authorities;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = JwtKeyRing.fromSecret(JwtKeyRing.DEFAULT_KID, JwtService.SECRET_KEY);
+        uncached = new JwtService(keyRing);
+        cached = new JwtService(keyRing, new VerifiedTokenCache(true, 10_000, new SimpleMeterRegistry()));
+        authorities = AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN");
+        userDetails = new User("testuser", "", authorities);
+        token = uncached.GenerateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncached.GenerateToken("testuser");
+    }
+
+    @Benchmark
+    public String generateTokenWithAuthorities() {
+        return uncached.GenerateToken("testuser", authorities);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return uncached.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return uncached.validateToken(token, userDetails);
+    }
+
+    @Benchmark
+    public Boolean validateTokenCached() {
+        return cached.validateToken(token, userDetails);
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.AuthService.auth;
 
+import com.example.AuthService.service.AccessTokenRevocationList;
+import com.example.AuthService.service.AuthMetrics;
+import com.example.AuthService.service.CustomUserDetails;
 import com.example.AuthService.service.JwtService;
+import com.example.AuthService.service.RoleDictionary;
 import com.example.AuthService.service.UserDetailsServiceImpl;
+import com.example.AuthService.service.ValidatedToken;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,29 +24,50 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
-@AllArgsConstructor
 @Data
 @lombok.EqualsAndHashCode(callSuper=false)
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    @Autowired
     private final JwtService jwtService;
 
-    @Autowired
     private final UserDetailsServiceImpl userDetailsService;
 
+    private final AccessTokenRevocationList revocationList;
+
+    private final AuthMetrics authMetrics;
+
+    private final RoleDictionary roleDictionary;
+
+    private final boolean statelessPrincipal;
+
+    public JwtAuthFilter(JwtService jwtService,
+                         UserDetailsServiceImpl userDetailsService,
+                         AccessTokenRevocationList revocationList,
+                         AuthMetrics authMetrics,
+                         RoleDictionary roleDictionary,
+                         @Value("${jwt.stateless-principal.enabled:false}") boolean statelessPrincipal) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.revocationList = revocationList;
+        this.authMetrics = authMetrics;
+        this.roleDictionary = roleDictionary;
+        this.statelessPrincipal = statelessPrincipal;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
         String token = null ;
-        String username = null ;
+        ValidatedToken validatedToken = null ;
         if(authHeader != null && authHeader.startsWith("Bearer ")){
             token = authHeader.substring(7);
-            username = jwtService.extractUsername(token);
+            validatedToken = validate(token);
 
-            if(username != null && SecurityContextHolder.getContext().getAuthentication() == null){
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if(jwtService.validateToken(token, userDetails)){
+            if(validatedToken != null && validatedToken.subject() != null && SecurityContextHolder.getContext().getAuthentication() == null){
+                ValidatedToken verified = validatedToken;
+                UserDetails userDetails = authMetrics.time("filter.principal", () -> resolvePrincipal(verified));
+                if(validatedToken.isValidFor(userDetails)){
+                    authMetrics.count("filter", "authenticated");
                     UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authenticationToken);
@@ -50,4 +76,31 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    private ValidatedToken validate(String token) {
+        try {
+            ValidatedToken validatedToken = authMetrics.time("filter.validate", () -> jwtService.validate(token));
+            if (revocationList.isRevoked(validatedToken.jti())) {
+                logger.debug("Rejected revoked bearer token " + validatedToken.jti());
+                authMetrics.count("filter", "revoked");
+                return null;
+            }
+            return validatedToken;
+        } catch (JwtException | IllegalArgumentException e) {
+            authMetrics.count("filter", "invalid");
+            // invalid or expired token: continue unauthenticated and let the security chain reject it
+            logger.debug("Rejected bearer token: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private UserDetails resolvePrincipal(ValidatedToken validatedToken) {
+        // tokens minted before authorities were embedded still need the user lookup
+        if (statelessPrincipal && validatedToken.authorities() != null) {
+            // role bits from the claim names, so RoleChecks is a bit test for token principals too
+            return CustomUserDetails.fromToken(validatedToken.subject(), validatedToken.authorities(),
+                    roleDictionary.encodeNames(validatedToken.authorities()));
+        }
+        return userDetailsService.loadUserByUsername(validatedToken.subject());
+    }
 }
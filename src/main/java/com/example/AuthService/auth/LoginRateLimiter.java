@@ -0,0 +1,230 @@
+package com.example.AuthService.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Token buckets per client IP, per username and IP pair, and per username, checked before a login
+ * attempt reaches the user lookup or BCrypt. The tight limit is on the username and IP pair, so
+ * guessing from one place is slow but cannot lock the owner out from elsewhere; the username-wide
+ * bucket is looser and only bounds guessing spread across many IPs. Both username buckets are
+ * refunded when the attempt does not fail authentication, so they count failures only. Usernames
+ * are keyed lower-cased because the username column compares case-insensitively.
+ * <p>
+ * Buckets live in lock-striped LRU maps capped at a fixed number of keys, and buckets that have
+ * refilled completely are evicted because they behave like a missing entry.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final boolean enabled;
+    private final BucketTable usernameIps;
+    private final BucketTable usernames;
+    private final BucketTable clientIps;
+    private final Counter usernameIpRejections;
+    private final Counter usernameRejections;
+    private final Counter ipRejections;
+
+    public LoginRateLimiter(@Value("${auth.login-rate-limit.enabled:true}") boolean enabled,
+                            @Value("${auth.login-rate-limit.username-ip.capacity:5}") int usernameIpCapacity,
+                            @Value("${auth.login-rate-limit.username-ip.refill-per-minute:5}") int usernameIpRefillPerMinute,
+                            @Value("${auth.login-rate-limit.username.capacity:50}") int usernameCapacity,
+                            @Value("${auth.login-rate-limit.username.refill-per-minute:50}") int usernameRefillPerMinute,
+                            @Value("${auth.login-rate-limit.ip.capacity:50}") int ipCapacity,
+                            @Value("${auth.login-rate-limit.ip.refill-per-minute:50}") int ipRefillPerMinute,
+                            @Value("${auth.login-rate-limit.max-keys:100000}") int maxKeys,
+                            @Value("${auth.login-rate-limit.stripes:64}") int stripes,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.usernameIps = new BucketTable(usernameIpCapacity, usernameIpRefillPerMinute, maxKeys, stripes);
+        this.usernames = new BucketTable(usernameCapacity, usernameRefillPerMinute, maxKeys, stripes);
+        this.clientIps = new BucketTable(ipCapacity, ipRefillPerMinute, maxKeys, stripes);
+        this.usernameIpRejections = Counter.builder("auth.login.rate-limited")
+                .tag("key", "username_ip")
+                .description("Login attempts rejected before authentication")
+                .register(meterRegistry);
+        this.usernameRejections = Counter.builder("auth.login.rate-limited")
+                .tag("key", "username")
+                .description("Login attempts rejected before authentication")
+                .register(meterRegistry);
+        this.ipRejections = Counter.builder("auth.login.rate-limited")
+                .tag("key", "ip")
+                .description("Login attempts rejected before authentication")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.rate-limit.keys", this,
+                        limiter -> limiter.usernameIps.size() + limiter.usernames.size() + limiter.clientIps.size())
+                .description("Username, username and IP, and IP buckets currently tracked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one attempt from the IP's, the username and IP pair's and the username's bucket. Returns
+     * {@link Duration#ZERO} when the attempt may proceed, otherwise how long the caller should wait
+     * before retrying. An attempt that proceeds and then does not fail must be {@link #refund}ed.
+     */
+    public Duration tryAcquire(String username, String clientIp) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        long now = System.nanoTime();
+        String ip = clientIp == null ? "" : clientIp;
+        String user = usernameKey(username);
+        long ipWait = clientIps.tryConsume(ip, now);
+        if (ipWait > 0) {
+            ipRejections.increment();
+            return Duration.ofNanos(ipWait);
+        }
+        long usernameIpWait = usernameIps.tryConsume(usernameIpKey(user, ip), now);
+        if (usernameIpWait > 0) {
+            usernameIpRejections.increment();
+            return Duration.ofNanos(usernameIpWait);
+        }
+        long usernameWait = usernames.tryConsume(user, now);
+        if (usernameWait > 0) {
+            usernameIps.refund(usernameIpKey(user, ip), now);
+            usernameRejections.increment();
+            return Duration.ofNanos(usernameWait);
+        }
+        return Duration.ZERO;
+    }
+
+    /**
+     * Gives back the username tokens of an attempt that authenticated, or that was never checked,
+     * so only failed passwords count against a username. The IP's token is kept.
+     */
+    public void refund(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        String user = usernameKey(username);
+        usernameIps.refund(usernameIpKey(user, clientIp == null ? "" : clientIp), now);
+        usernames.refund(user, now);
+    }
+
+    private static String usernameKey(String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+
+    private static String usernameIpKey(String username, String clientIp) {
+        // NUL cannot appear in an IP address, so distinct pairs never share a key
+        return clientIp + '\0' + username;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login-rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        usernameIps.evictFull(now);
+        usernames.evictFull(now);
+        clientIps.evictFull(now);
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private static final class BucketTable {
+        private final double capacity;
+        private final double refillPerNano;
+        private final Map<String, Bucket>[] stripes;
+        private final int mask;
+
+        @SuppressWarnings("unchecked")
+        private BucketTable(int capacity, int refillPerMinute, int maxKeys, int stripeCount) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerMinute / (double) Duration.ofMinutes(1).toNanos();
+            int count = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+            int maxKeysPerStripe = Math.max(1, maxKeys / count);
+            this.stripes = new Map[count];
+            this.mask = count - 1;
+            for (int i = 0; i < count; i++) {
+                // access-ordered, so the least recently seen key goes first when the stripe is full
+                stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                        return size() > maxKeysPerStripe;
+                    }
+                };
+            }
+        }
+
+        private long tryConsume(String key, long now) {
+            Map<String, Bucket> stripe = stripeFor(key);
+            synchronized (stripe) {
+                Bucket bucket = stripe.get(key);
+                if (bucket == null) {
+                    stripe.put(key, new Bucket(capacity - 1, now));
+                    return 0;
+                }
+                refill(bucket, now);
+                if (bucket.tokens >= 1) {
+                    bucket.tokens -= 1;
+                    return 0;
+                }
+                return Math.max(1, (long) Math.ceil((1 - bucket.tokens) / refillPerNano));
+            }
+        }
+
+        private void refund(String key, long now) {
+            Map<String, Bucket> stripe = stripeFor(key);
+            synchronized (stripe) {
+                Bucket bucket = stripe.get(key);
+                if (bucket != null) {
+                    refill(bucket, now);
+                    bucket.tokens = Math.min(capacity, bucket.tokens + 1);
+                }
+            }
+        }
+
+        private void evictFull(long now) {
+            for (Map<String, Bucket> stripe : stripes) {
+                synchronized (stripe) {
+                    Iterator<Bucket> buckets = stripe.values().iterator();
+                    while (buckets.hasNext()) {
+                        Bucket bucket = buckets.next();
+                        refill(bucket, now);
+                        if (bucket.tokens >= capacity) {
+                            buckets.remove();
+                        }
+                    }
+                }
+            }
+        }
+
+        private int size() {
+            int size = 0;
+            for (Map<String, Bucket> stripe : stripes) {
+                synchronized (stripe) {
+                    size += stripe.size();
+                }
+            }
+            return size;
+        }
+
+        private void refill(Bucket bucket, long now) {
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * refillPerNano);
+            bucket.updatedAt = now;
+        }
+
+        private Map<String, Bucket> stripeFor(String key) {
+            int h = key.hashCode();
+            return stripes[(h ^ (h >>> 16)) & mask];
+        }
+    }
+}
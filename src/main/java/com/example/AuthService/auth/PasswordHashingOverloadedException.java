@@ -0,0 +1,12 @@
+package com.example.AuthService.auth;
+
+/**
+ * The hashing queue is full. Mapped to 503 with Retry-After by
+ * {@link com.example.AuthService.controller.AuthExceptionHandler}.
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    public PasswordHashingOverloadedException(String message) {
+        super(message);
+    }
+}
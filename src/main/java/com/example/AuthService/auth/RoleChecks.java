@@ -0,0 +1,64 @@
+package com.example.AuthService.auth;
+
+import com.example.AuthService.service.CustomUserDetails;
+import com.example.AuthService.service.RoleDictionary;
+import com.example.AuthService.service.RoleSet;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Role checks behind the URL rules in {@link SecurityConfig} (see {@link #require}) and method
+ * security expressions, e.g. {@code @PreAuthorize("@roleChecks.has('ADMIN')")}. Principals loaded
+ * from the database or built from token claims carry a {@link RoleSet}, so the check is a bit test;
+ * other principals, or tokens naming a role this node does not know, fall back to scanning their
+ * authorities.
+ */
+@Component("roleChecks")
+public class RoleChecks {
+
+    private final RoleDictionary roleDictionary;
+
+    public RoleChecks(RoleDictionary roleDictionary) {
+        this.roleDictionary = roleDictionary;
+    }
+
+    public boolean has(String role) {
+        return has(SecurityContextHolder.getContext().getAuthentication(), role);
+    }
+
+    /**
+     * {@link #has} as a URL rule, e.g. {@code .requestMatchers("/admin").access(roleChecks.require("ADMIN"))}.
+     */
+    public AuthorizationManager<RequestAuthorizationContext> require(String role) {
+        return (authentication, context) -> new AuthorizationDecision(has(authentication.get(), role));
+    }
+
+    private boolean has(Authentication authentication, String role) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        if (authentication.getPrincipal() instanceof CustomUserDetails details && details.getRoles() != null) {
+            return details.getRoles().has(roleDictionary.bit(role));
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (role.equalsIgnoreCase(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasAny(String... roles) {
+        for (String role : roles) {
+            if (has(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,7 +3,9 @@ package com.example.AuthService.auth;
 import com.example.AuthService.repository.UserRepository;
 import com.example.AuthService.service.UserDetailsServiceImpl;
 import com.example.AuthService.service.UserValidationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpMethod;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -20,6 +22,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -28,19 +31,27 @@ public class SecurityConfig {
 
     private final UserDetailsServiceImpl userDetailsServiceImpl;
     private final PasswordEncoder passwordEncoder;
+    private final int managementPort;
 
-    public SecurityConfig(UserDetailsServiceImpl userDetailsServiceImpl, PasswordEncoder passwordEncoder) {
+    public SecurityConfig(UserDetailsServiceImpl userDetailsServiceImpl, PasswordEncoder passwordEncoder,
+                          @Value("${management.server.port:-1}") int managementPort) {
         this.userDetailsServiceImpl = userDetailsServiceImpl;
         this.passwordEncoder = passwordEncoder;
+        this.managementPort = managementPort;
     }
 
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter, RoleChecks roleChecks) throws Exception {
         return http
                 .csrf(AbstractHttpConfigurer::disable).cors(CorsConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/v1/login", "/auth/v1/refreshToken", "/auth/v1/signup", "/auth/v1/users").permitAll()
+                        .requestMatchers("/auth/v1/login", "/auth/v1/refreshToken", "/auth/v1/signup", "/auth/v1/username-available", "/.well-known/jwks.json").permitAll()
+                        .requestMatchers(prometheusOnManagementPort()).permitAll()
+                        .requestMatchers(HttpMethod.POST, "/auth/v1/users/import").access(roleChecks.require("ADMIN"))
+                        .requestMatchers(HttpMethod.GET, "/auth/v1/users", "/auth/v1/users/stream").access(roleChecks.require("ADMIN"))
+                        // RFC 7662: only authenticated gateway clients may introspect, never end users or the public
+                        .requestMatchers(HttpMethod.POST, "/auth/v1/introspect").access(roleChecks.require("INTROSPECT"))
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -50,6 +61,12 @@ public class SecurityConfig {
                 .build();
     }
 
+    // the scrape endpoint is open only on the internal management port; on any other port it needs a login
+    private RequestMatcher prometheusOnManagementPort() {
+        return request -> managementPort > 0 && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
@@ -0,0 +1,106 @@
+package com.example.AuthService.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves a {@code refresh_tokens} table that still has the plaintext {@code token} column out of the
+ * way, before Hibernate's schema update runs. Hashes cannot be derived for the old rows: updating the
+ * table in place would zero-fill {@code token_hash}, the unique index would fail to build, and
+ * Hibernate would only log the failure. Hibernate never drops columns, so the {@code token} column
+ * also marks a table where that failed update has already happened.
+ * <p>
+ * The table is renamed to {@code refresh_tokens_legacy} rather than dropped, and Hibernate creates
+ * {@code refresh_tokens} again empty, so holders of an old refresh token log in again. It is renamed
+ * only once: when an older release is still running, or is rolled back to, it adds {@code token} to
+ * the new table, and a later run must then leave the new table and its sessions alone.
+ */
+@Slf4j
+public class LegacyRefreshTokenMigration implements InitializingBean {
+
+    static final String TABLE = "refresh_tokens";
+    static final String LEGACY_TABLE = "refresh_tokens_legacy";
+
+    private final DataSource dataSource;
+
+    public LegacyRefreshTokenMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            if (!hasColumn(metaData, connection, TABLE, "token")) {
+                return;
+            }
+            if (hasTable(metaData, connection, LEGACY_TABLE)) {
+                log.warn("{} has a plaintext token column again, most likely added by an older release; "
+                        + "keeping it because {} already holds the legacy tokens", TABLE, LEGACY_TABLE);
+                return;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("alter table " + TABLE + " rename to " + LEGACY_TABLE);
+                // constraint names are unique per schema, and Hibernate derives the new table's from the same table name
+                for (String foreignKey : foreignKeys(metaData, connection, LEGACY_TABLE)) {
+                    statement.execute("alter table " + LEGACY_TABLE + " drop constraint " + foreignKey);
+                }
+            }
+            log.warn("Renamed legacy {} table with plaintext tokens to {}; {} is recreated with hashed tokens",
+                    TABLE, LEGACY_TABLE, TABLE);
+        }
+    }
+
+    // identifiers are stored lower case by MySQL and upper case by H2
+    private static String[] spellings(String identifier) {
+        return new String[]{identifier, identifier.toUpperCase()};
+    }
+
+    private static boolean hasTable(DatabaseMetaData metaData, Connection connection, String table) throws SQLException {
+        for (String tableName : spellings(table)) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), tableName, null)) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasColumn(DatabaseMetaData metaData, Connection connection, String table, String column) throws SQLException {
+        for (String tableName : spellings(table)) {
+            for (String columnName : spellings(column)) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), tableName, columnName)) {
+                    if (columns.next()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<String> foreignKeys(DatabaseMetaData metaData, Connection connection, String table) throws SQLException {
+        List<String> names = new ArrayList<>();
+        for (String tableName : spellings(table)) {
+            try (ResultSet keys = metaData.getImportedKeys(connection.getCatalog(), connection.getSchema(), tableName)) {
+                while (keys.next()) {
+                    String name = keys.getString("FK_NAME");
+                    if (name != null && !names.contains(name)) {
+                        names.add(name);
+                    }
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.AuthService.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Data fixes that must run before Hibernate's {@code ddl-auto=update}, ordered ahead of the entity
+ * manager factory the same way Spring Boot orders Flyway.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SchemaMigrationConfig {
+
+    @Bean
+    public LegacyRefreshTokenMigration legacyRefreshTokenMigration(DataSource dataSource) {
+        return new LegacyRefreshTokenMigration(dataSource);
+    }
+
+    @Bean
+    static MigrationEntityManagerFactoryDependsOnPostProcessor migrationEntityManagerFactoryDependsOnPostProcessor() {
+        return new MigrationEntityManagerFactoryDependsOnPostProcessor();
+    }
+
+    static class MigrationEntityManagerFactoryDependsOnPostProcessor extends EntityManagerFactoryDependsOnPostProcessor {
+
+        MigrationEntityManagerFactoryDependsOnPostProcessor() {
+            super(LegacyRefreshTokenMigration.class);
+        }
+    }
+}
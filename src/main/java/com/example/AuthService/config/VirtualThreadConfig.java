@@ -0,0 +1,52 @@
+package com.example.AuthService.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Extra wiring for spring.threads.virtual.enabled=true. Boot already moves Tomcat, @Scheduled jobs
+ * and its own listener containers onto virtual threads; here the DataSource gets a concurrency
+ * limit sized to the database rather than to the (now unbounded) number of request threads.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    int maxConcurrency = environment.getProperty("auth.datasource.max-concurrency", Integer.class,
+                            environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                    long acquireTimeoutMs = environment.getProperty("auth.datasource.acquire-timeout-ms", Long.class, 2000L);
+                    return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimitedDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConcurrencyLimitedDataSource limited) {
+                Gauge.builder("auth.datasource.permits.in-use", limited, ConcurrencyLimitedDataSource::getInUse)
+                        .description("Connections currently checked out through the limiter")
+                        .register(registry);
+                Gauge.builder("auth.datasource.permits.waiting", limited, ConcurrencyLimitedDataSource::getQueueLength)
+                        .description("Threads waiting for a database permit")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.AuthService.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR jdk.VirtualThreadPinned event in-process. A virtual thread that blocks inside a
+ * synchronized block (the MySQL driver before 9.0 is the usual suspect) holds on to its carrier
+ * thread, and enough of them stall every request. Pinned time is exported as
+ * auth.virtual-threads.pinned, and the offending stack is logged at most once per interval.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private final long logIntervalNanos;
+    private final Timer pinned;
+    private final Counter pinnedEvents;
+    private final AtomicLong lastLogged = new AtomicLong(System.nanoTime() - Long.MAX_VALUE / 2);
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(@Value("${auth.virtual-threads.pinning.threshold-ms:20}") long thresholdMs,
+                                       @Value("${auth.virtual-threads.pinning.log-interval-ms:10000}") long logIntervalMs,
+                                       MeterRegistry meterRegistry) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.logIntervalNanos = Duration.ofMillis(logIntervalMs).toNanos();
+        this.pinned = Timer.builder("auth.virtual-threads.pinned")
+                .description("Time virtual threads spent pinned to their carrier")
+                .register(meterRegistry);
+        this.pinnedEvents = Counter.builder("auth.virtual-threads.pinned.events")
+                .description("Pinning events above the reporting threshold")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        log.info("Watching for virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        pinnedEvents.increment();
+        long now = System.nanoTime();
+        long last = lastLogged.get();
+        if (now - last >= logIntervalNanos && lastLogged.compareAndSet(last, now)) {
+            log.warn("Virtual thread pinned for {} ms at\n{}", event.getDuration().toMillis(), topFrames(event));
+        }
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "\t(no stack trace)";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .limit(12)
+                .map(VirtualThreadPinningMonitor::format)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String format(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -1,24 +1,47 @@
 package com.example.AuthService.controller;
 
+import com.example.AuthService.auth.PasswordHashingOverloadedException;
 import com.example.AuthService.entities.RefreshToken;
-import com.example.AuthService.entities.UserInfo;
+import com.example.AuthService.models.UserImportResult;
 import com.example.AuthService.models.UserInfoDto;
+import com.example.AuthService.models.UserSummary;
 import com.example.AuthService.response.JwtResponseDto;
+import com.example.AuthService.service.AuthMetrics;
 import com.example.AuthService.service.JwtService;
 import com.example.AuthService.service.RefreshTokenService;
 import com.example.AuthService.service.UserDetailsServiceImpl;
+import com.example.AuthService.service.UserImportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 public class AuthController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private JwtService jwtService;
 
@@ -28,6 +51,15 @@ public class AuthController {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private UserImportService userImportService;
+
 
     @PostMapping("auth/v1/signup")
     public ResponseEntity signup(@RequestBody UserInfoDto userInfoDto){
@@ -37,7 +69,8 @@ public class AuthController {
                 return new ResponseEntity<>("User already exisits", HttpStatus.BAD_REQUEST);
             }
             RefreshToken refreshToken = refreshTokenService.createRefreshToken(userInfoDto.username());
-            String jwtToken = jwtService.GenerateToken(userInfoDto.username());
+            // a freshly signed up user has no roles yet
+            String jwtToken = authMetrics.time("jwt.sign", () -> jwtService.GenerateToken(userInfoDto.username(), List.of()));
             return new ResponseEntity<>(JwtResponseDto.builder()
                     .accessToken(jwtToken)
                     .token(refreshToken.getToken())
@@ -45,18 +78,73 @@ public class AuthController {
             );
         } catch(IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch(PasswordHashingOverloadedException e) {
+            // answered with 503 and Retry-After by AuthExceptionHandler
+            throw e;
         } catch(Exception e) {
             return new ResponseEntity<>("Exception in User Service: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @GetMapping("auth/v1/username-available")
+    public ResponseEntity<Map<String, Object>> isUsernameAvailable(@RequestParam String username) {
+        boolean available = userDetailsService.isUsernameAvailable(username);
+        return new ResponseEntity<>(Map.of("username", username, "available", available), HttpStatus.OK);
+    }
+
     @GetMapping("auth/v1/users")
-    public ResponseEntity<List<UserInfo>> getAllUsers() {
+    public ResponseEntity<List<UserSummary>> getUsers(@RequestParam(required = false) String after,
+                                                      @RequestParam(defaultValue = "100") int limit) {
         try {
-            List<UserInfo> users = userDetailsService.getAllUsers();
-            return new ResponseEntity<>(users, HttpStatus.OK);
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            List<UserSummary> users = userDetailsService.getUsersPage(after, pageSize);
+            HttpHeaders headers = new HttpHeaders();
+            if (users.size() == pageSize) {
+                headers.add(NEXT_CURSOR_HEADER, users.get(users.size() - 1).userId());
+            }
+            return new ResponseEntity<>(users, headers, HttpStatus.OK);
         } catch(Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    @GetMapping("auth/v1/users/stream")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        // written element by element straight from the DB cursor, so memory stays flat for any table size
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                userDetailsService.forEachUser(user -> {
+                    try {
+                        generator.writeObject(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @PostMapping(value = "auth/v1/users/import", consumes = NDJSON)
+    public void importUsers(InputStream in, HttpServletResponse response) throws IOException {
+        // one result line per input line, flushed as each chunk commits so large files report progress
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        userImportService.importUsers(reader, results -> writeChunk(out, results));
+    }
+
+    private void writeChunk(OutputStream out, List<UserImportResult> results) {
+        try {
+            for (UserImportResult result : results) {
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.AuthService.controller;
+
+import com.example.AuthService.auth.PasswordHashingOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Writes the overload response directly. Relying on {@code @ResponseStatus} would send the request
+ * through an ERROR dispatch to {@code /error}, which the security chain answers with 401.
+ */
+@RestControllerAdvice
+public class AuthExceptionHandler {
+
+    @Value("${auth.password-hashing.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<String> passwordHashingOverloaded(PasswordHashingOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(e.getMessage());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.AuthService.controller;
+
+import com.example.AuthService.service.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+@Controller
+public class JwksController {
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    @Value("${jwt.jwks.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<byte[]> jwks(WebRequest request) {
+        JwtKeyRing.JwkSet jwkSet = keyRing.jwkSet();
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+        // handles weak validators, comma-separated lists and "*" in If-None-Match
+        if (request.checkNotModified(jwkSet.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(jwkSet.etag()).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(jwkSet.etag())
+                .cacheControl(cacheControl)
+                .body(jwkSet.json());
+    }
+}
@@ -1,21 +1,42 @@
 package com.example.AuthService.controller;
 
+import com.example.AuthService.auth.LoginRateLimiter;
+import com.example.AuthService.auth.PasswordHashingOverloadedException;
 import com.example.AuthService.entities.RefreshToken;
-import com.example.AuthService.entities.UserInfo;
 import com.example.AuthService.request.AuthRequestDto;
+import com.example.AuthService.request.IntrospectionRequest;
 import com.example.AuthService.request.RefreshTokenRequest;
+import com.example.AuthService.response.IntrospectionResponse;
 import com.example.AuthService.response.JwtResponseDto;
+import com.example.AuthService.response.TokenIntrospection;
+import com.example.AuthService.service.AccessTokenRevocationList;
+import com.example.AuthService.service.AuthMetrics;
 import com.example.AuthService.service.JwtService;
+import com.example.AuthService.service.RefreshCoalescer;
 import com.example.AuthService.service.RefreshTokenService;
+import com.example.AuthService.service.RotatedRefreshToken;
+import com.example.AuthService.service.TokenIntrospectionService;
+import com.example.AuthService.service.UserDetailsServiceImpl;
+import com.example.AuthService.service.ValidatedToken;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.time.Duration;
+import java.util.List;
 
 @Controller
 public class TokenController {
@@ -29,13 +50,54 @@ public class TokenController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private RefreshCoalescer refreshCoalescer;
+
+    @Autowired
+    private AccessTokenRevocationList revocationList;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private TokenIntrospectionService tokenIntrospectionService;
+
+    @Value("${auth.introspection.max-batch-size:500}")
+    private int maxIntrospectionBatchSize;
+
     @PostMapping("auth/v1/login")
-    public ResponseEntity<Object> authenticateAndGetToken(@RequestBody AuthRequestDto authRequestDto){
-        Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(authRequestDto.username(), authRequestDto.password()));
+    public ResponseEntity<Object> authenticateAndGetToken(@RequestBody AuthRequestDto authRequestDto, HttpServletRequest request){
+        // throttled before the user lookup and BCrypt compare, which is what credential stuffing costs us
+        Duration retryAfter = loginRateLimiter.tryAcquire(authRequestDto.username(), request.getRemoteAddr());
+        if(!retryAfter.isZero()) {
+            authMetrics.count("login", "rate_limited");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000)))
+                    .body("Too many login attempts, retry later");
+        }
+        // user lookup plus BCrypt compare; bad credentials show up as exception=BadCredentialsException
+        Authentication authentication;
+        try {
+            authentication = authMetrics.time("login.authenticate", () -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(authRequestDto.username(), authRequestDto.password())));
+        } catch (PasswordHashingOverloadedException e) {
+            // the password was never compared, so the attempt does not count against the username
+            loginRateLimiter.refund(authRequestDto.username(), request.getRemoteAddr());
+            throw e;
+        }
         if(authentication.isAuthenticated()) {
+            loginRateLimiter.refund(authRequestDto.username(), request.getRemoteAddr());
             RefreshToken refreshToken = refreshTokenService.createRefreshToken(authRequestDto.username());
+            String accessToken = authMetrics.time("jwt.sign", () -> jwtService.GenerateToken((UserDetails) authentication.getPrincipal()));
+            authMetrics.count("login", "success");
             return new ResponseEntity<>(JwtResponseDto.builder()
-                    .accessToken(jwtService.GenerateToken(authRequestDto.username()))
+                    .accessToken(accessToken)
                     .token(refreshToken.getToken())
                     .build(), HttpStatus.OK);
         } else {
@@ -44,16 +106,49 @@ public class TokenController {
     }
 
     @PostMapping("auth/v1/refreshToken")
+    @ResponseBody
     public JwtResponseDto refreshToken(@RequestBody RefreshTokenRequest refreshTokenRequest){
-        return refreshTokenService.findByToken(refreshTokenRequest.getToken())
-                .map(refreshTokenService::verifyRefreshToken)
-                .map(RefreshToken::getUserInfo)
-                .map(userInfo -> {
-                    String accessToken = jwtService.GenerateToken(userInfo.getUsername());
-                    return JwtResponseDto.builder()
-                            .accessToken(accessToken)
-                            .token(refreshTokenRequest.getToken())
-                            .build();
-                }).orElseThrow(() -> new RuntimeException("Refresh Token is not in DB."));
+        // parallel requests from one client share a single rotation and access token
+        return refreshCoalescer.refresh(refreshTokenRequest.getToken(), () -> rotate(refreshTokenRequest.getToken()));
+    }
+
+    private JwtResponseDto rotate(String token){
+        RotatedRefreshToken rotated = refreshTokenService.rotateRefreshToken(token);
+        // authorities come from the user details cache rather than a roles join per refresh
+        UserDetails userDetails = userDetailsService.loadUserByUsername(rotated.username());
+        String accessToken = authMetrics.time("jwt.sign", () -> jwtService.GenerateToken(userDetails));
+        return JwtResponseDto.builder()
+                .accessToken(accessToken)
+                .token(rotated.token())
+                .build();
+    }
+
+    @PostMapping("auth/v1/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader){
+        if(!authHeader.startsWith("Bearer ")){
+            return ResponseEntity.badRequest().build();
+        }
+        // the filter has already authenticated this token, so it is valid and unrevoked here
+        ValidatedToken token = jwtService.validate(authHeader.substring("Bearer ".length()));
+        try {
+            revocationList.revoke(token);
+        } catch (IllegalArgumentException e) {
+            // minted before tokens carried a jti; it simply runs out
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("auth/v1/introspect")
+    public ResponseEntity<IntrospectionResponse> introspect(@RequestBody IntrospectionRequest request){
+        List<String> tokens = request.getTokens();
+        if(tokens == null || tokens.isEmpty() || tokens.size() > maxIntrospectionBatchSize){
+            return ResponseEntity.badRequest().build();
+        }
+        List<TokenIntrospection> results = tokenIntrospectionService.introspect(tokens);
+        // private: the response lists subjects and authorities, so shared caches must not keep it
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(tokenIntrospectionService.cacheAge(results)).cachePrivate())
+                .body(new IntrospectionResponse(results));
     }
 }
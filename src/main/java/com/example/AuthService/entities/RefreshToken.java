@@ -16,18 +16,50 @@ import java.time.Instant;
 @AllArgsConstructor
 @Builder
 @JsonNaming(PropertyNamingStrategy.SnakeCaseStrategy.class)
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date"),
+        @Index(name = "idx_refresh_tokens_previous_hash", columnList = "previous_token_hash"),
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id")
+})
 public class RefreshToken {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
 
+    // SHA-256 of the token handed to the client; the raw token itself is never stored
+    @Column(name = "token_hash", columnDefinition = "BINARY(32)", nullable = false, unique = true)
+    private byte[] tokenHash;
+
+    // hash this token replaced on its last rotation; presenting it again means the token leaked
+    @Column(name = "previous_token_hash", columnDefinition = "BINARY(32)")
+    private byte[] previousTokenHash;
+
+    // shared by every token rotated out of the same login
+    @Column(name = "family_id", length = 36, nullable = false)
+    private String familyId;
+
+    // only known right after the token was minted
+    @Transient
     private String token;
 
+    // sliding expiry, moved forward on each rotation but never past familyExpiresAt
+    @Column(name = "expiry_date")
     private Instant expiryDate;
 
-    @OneToOne
-    @JoinColumn(name = "id" , referencedColumnName = "user_id")
+    // when the current hash replaced previousTokenHash, bounding the grace window for late duplicates
+    @Column(name = "rotated_at")
+    private Instant rotatedAt;
+
+    // the current token sealed under a key derived from previousTokenHash's token; see RefreshTokenService
+    @Column(name = "grace_token", columnDefinition = "VARBINARY(128)")
+    private byte[] graceToken;
+
+    // absolute end of the login session, fixed at login; null only for rows that predate it
+    @Column(name = "family_expires_at")
+    private Instant familyExpiresAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", referencedColumnName = "user_id")
     private UserInfo userInfo;
 }
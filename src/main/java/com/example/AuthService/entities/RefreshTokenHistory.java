@@ -0,0 +1,38 @@
+package com.example.AuthService.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A refresh token hash that has been rotated away, kept until its family expires so that replaying
+ * any earlier generation of a token, not just the last one, is recognised as reuse.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "refresh_token_history", indexes = {
+        @Index(name = "idx_refresh_token_history_expiry_date", columnList = "expiry_date")
+})
+public class RefreshTokenHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    @Column(name = "token_hash", columnDefinition = "BINARY(32)", nullable = false, unique = true)
+    private byte[] tokenHash;
+
+    @Column(name = "family_id", length = 36, nullable = false)
+    private String familyId;
+
+    // the family's absolute expiry; after it the family itself is gone
+    @Column(name = "expiry_date", nullable = false)
+    private Instant expiryDate;
+}
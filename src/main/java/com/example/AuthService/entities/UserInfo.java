@@ -27,11 +27,16 @@ public class UserInfo {
     @NonNull
     private Long phoneNumber;
     @NonNull
+    @Column(unique = true)
     private String username;
     @NonNull
     private String password;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // authentication reads role ids through UserRepository.findCredentialsByUsername, so the entity
+    // only loads roles when they are actually used; excluded from toString/equals to keep them lazy
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
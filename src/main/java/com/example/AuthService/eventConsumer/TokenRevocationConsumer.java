@@ -0,0 +1,37 @@
+package com.example.AuthService.eventConsumer;
+
+import com.example.AuthService.service.AccessTokenRevocationList;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationConsumer {
+
+    private final AccessTokenRevocationList revocationList;
+
+    // own group per replica, and a new replica replays the topic so it learns revocations still in force
+    @KafkaListener(topics = "${spring.kafka.topic-token-revocation.name:auth_token_revocation}",
+            groupId = "auth-token-revocation-${random.uuid}",
+            containerFactory = "stringKafkaListenerContainerFactory",
+            properties = "auto.offset.reset=earliest",
+            autoStartup = "${auth.token-revocation.listener.enabled:true}")
+    public void onRevocation(String payload) {
+        int separator = payload.indexOf(' ');
+        if (separator < 0) {
+            log.warn("Ignoring malformed token revocation: {}", payload);
+            return;
+        }
+        try {
+            Instant expiresAt = Instant.ofEpochMilli(Long.parseLong(payload.substring(separator + 1)));
+            revocationList.applyRemote(payload.substring(0, separator), expiresAt);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed token revocation: {}", payload);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.AuthService.eventConsumer;
+
+import com.example.AuthService.service.UserDetailsCache;
+import com.example.AuthService.service.UsernameIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserCacheInvalidationConsumer {
+
+    private final UserDetailsCache userDetailsCache;
+
+    private final UsernameIndex usernameIndex;
+
+    // every replica uses its own group so each one sees every invalidation
+    @KafkaListener(topics = "${spring.kafka.topic-user-cache.name:auth_user_cache_invalidation}",
+            groupId = "auth-user-cache-${random.uuid}",
+            containerFactory = "stringKafkaListenerContainerFactory",
+            autoStartup = "${auth.user-cache.invalidation.listener.enabled:true}")
+    public void onInvalidation(String username) {
+        log.debug("Evicting cached user details for {}", username);
+        userDetailsCache.invalidate(username);
+        // the username may have been created on another replica
+        usernameIndex.add(username);
+    }
+}
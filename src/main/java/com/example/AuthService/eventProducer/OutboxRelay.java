@@ -0,0 +1,102 @@
+package com.example.AuthService.eventProducer;
+
+import com.example.AuthService.entities.OutboxEvent;
+import com.example.AuthService.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox to Kafka in batches. A batch is locked, sent, acknowledged and deleted in one
+ * transaction, so a failed send leaves the rows for the next run (at-least-once delivery).
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserInfoProducer userInfoProducer;
+    private final StringKafkaPublisher stringKafkaPublisher;
+    private final String userCacheTopicName;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       UserInfoProducer userInfoProducer,
+                       StringKafkaPublisher stringKafkaPublisher,
+                       @Value("${spring.kafka.topic-user-cache.name:auth_user_cache_invalidation}") String userCacheTopicName,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${auth.outbox.batch-size:500}") int batchSize,
+                       @Value("${auth.outbox.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.userInfoProducer = userInfoProducer;
+        this.stringKafkaPublisher = stringKafkaPublisher;
+        this.userCacheTopicName = userCacheTopicName;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.outbox.poll-interval-ms:200}")
+    public void drain() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, events stay queued: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        CompletableFuture<?>[] sends = batch.stream()
+                .map(this::send)
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying outbox events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch", e);
+        }
+        outboxEventRepository.deleteByIdIn(batch.stream().map(OutboxEvent::getId).toList());
+        return batch.size();
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        if (userCacheTopicName.equals(event.getTopic())) {
+            // new usernames travel as plain strings, like cache invalidations on the same topic
+            return stringKafkaPublisher.send(event.getTopic(), event.getAggregateId(), event.getPayload());
+        }
+        return userInfoProducer.sendEventToKafka(event.getTopic(), event.getAggregateId(), fromJson(event));
+    }
+
+    private UserInfoEvent fromJson(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), UserInfoEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt outbox event " + event.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.AuthService.eventProducer;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes small string payloads (cache invalidations and similar control messages). It owns its
+ * producer instead of exposing a KafkaTemplate bean, which would replace the auto-configured one
+ * used for {@link UserInfoEvent}s.
+ */
+@Component
+public class StringKafkaPublisher {
+
+    private final DefaultKafkaProducerFactory<String, String> producerFactory;
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    public StringKafkaPublisher(KafkaProperties kafkaProperties) {
+        this.producerFactory = new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(null),
+                new StringSerializer(), new StringSerializer());
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+    }
+
+    public CompletableFuture<SendResult<String, String>> send(String topic, String key, String value) {
+        return kafkaTemplate.send(topic, key, value);
+    }
+
+    @PreDestroy
+    public void close() {
+        producerFactory.destroy();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.AuthService.eventProducer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationProducer {
+
+    private final StringKafkaPublisher stringKafkaPublisher;
+
+    @Value("${spring.kafka.topic-token-revocation.name:auth_token_revocation}")
+    private String topicName;
+
+    // payload is "<jti> <exp epoch millis>" so receivers can drop the entry once the token expires
+    public void sendRevocation(String jti, Instant expiresAt) {
+        stringKafkaPublisher.send(topicName, jti, jti + " " + expiresAt.toEpochMilli());
+    }
+}
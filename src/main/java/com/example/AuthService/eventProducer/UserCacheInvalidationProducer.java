@@ -0,0 +1,19 @@
+package com.example.AuthService.eventProducer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class UserCacheInvalidationProducer {
+
+    private final StringKafkaPublisher stringKafkaPublisher;
+
+    @Value("${spring.kafka.topic-user-cache.name:auth_user_cache_invalidation}")
+    private String topicName;
+
+    public void sendInvalidation(String username) {
+        stringKafkaPublisher.send(topicName, username, username);
+    }
+}
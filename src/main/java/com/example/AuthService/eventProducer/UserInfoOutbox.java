@@ -0,0 +1,96 @@
+package com.example.AuthService.eventProducer;
+
+import com.example.AuthService.entities.OutboxEvent;
+import com.example.AuthService.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Writes {@link UserInfoEvent}s, and the usernames of new users for the other replicas' username
+ * indexes, to the outbox table. Call it inside the transaction that writes the user so the rows
+ * exist exactly when the user does; {@link OutboxRelay} publishes them later.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserInfoOutbox {
+
+    private static final String INSERT_OUTBOX_EVENT =
+            "insert into user_event_outbox (aggregate_id, topic, payload, created_at) values (?, ?, ?, ?)";
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.kafka.topic-json.name}")
+    private String topicJsonName;
+
+    @Value("${spring.kafka.topic-user-cache.name:auth_user_cache_invalidation}")
+    private String userCacheTopicName;
+
+    public void enqueue(UserInfoEvent eventData) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateId(eventData.userId())
+                .topic(topicJsonName)
+                .payload(toJson(eventData))
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Queues a new username for the user cache topic, whose consumer adds it to every replica's
+     * username index.
+     */
+    public void enqueueUsername(String username) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateId(username)
+                .topic(userCacheTopicName)
+                .payload(username)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Batch variant for bulk loads: one JDBC batch instead of an entity save per event. Must also run
+     * inside the transaction that inserts the users.
+     */
+    public void enqueueAll(List<UserInfoEvent> events) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_EVENT, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.userId());
+            statement.setString(2, topicJsonName);
+            statement.setString(3, toJson(event));
+            statement.setTimestamp(4, now);
+        });
+    }
+
+    /**
+     * Batch variant of {@link #enqueueUsername}, with the same transaction rule as {@link #enqueueAll}.
+     */
+    public void enqueueUsernames(List<String> usernames) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_EVENT, usernames, usernames.size(), (statement, username) -> {
+            statement.setString(1, username);
+            statement.setString(2, userCacheTopicName);
+            statement.setString(3, username);
+            statement.setTimestamp(4, now);
+        });
+    }
+
+    private String toJson(UserInfoEvent eventData) {
+        try {
+            return objectMapper.writeValueAsString(eventData);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize user event for " + eventData.userId(), e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.AuthService.eventProducer;
 
 import com.example.AuthService.models.UserInfoDto;
+import com.example.AuthService.service.AuthMetrics;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.messaging.Message;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,19 +11,32 @@ import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 public class UserInfoProducer {
 
     private final KafkaTemplate<String, UserInfoDto> kafkaTemplate;
 
+    private final AuthMetrics authMetrics;
+
     @Value("${spring.kafka.topic-json.name}")
     private String topicJsonName;
 
-    public void sendEventToKafka(UserInfoEvent eventData) {
+    public CompletableFuture<SendResult<String, UserInfoDto>> sendEventToKafka(UserInfoEvent eventData) {
+        return sendEventToKafka(topicJsonName, eventData.userId(), eventData);
+    }
+
+    // keyed by userId so all events of one user land on the same partition in order
+    public CompletableFuture<SendResult<String, UserInfoDto>> sendEventToKafka(String topic, String key, UserInfoEvent eventData) {
         Message<UserInfoEvent> message = MessageBuilder.withPayload(eventData)
-                .setHeader(KafkaHeaders.TOPIC, topicJsonName)
+                .setHeader(KafkaHeaders.TOPIC, topic)
+                .setHeader(KafkaHeaders.KEY, key)
                 .build();
-        kafkaTemplate.send(message);
+        // measured until the broker acknowledges, which is what the outbox relay waits on
+        long start = System.nanoTime();
+        return kafkaTemplate.send(message)
+                .whenComplete((result, failure) -> authMetrics.record("kafka.send", start, failure));
     }
 }
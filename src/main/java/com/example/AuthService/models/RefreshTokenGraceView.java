@@ -0,0 +1,11 @@
+package com.example.AuthService.models;
+
+import java.time.Instant;
+
+/**
+ * The row a refresh token was just rotated into, looked up by the rotated-out hash, with the
+ * successor sealed under the old token so a late duplicate refresh can be answered on any replica,
+ * and the family to revoke when the duplicate comes too late.
+ */
+public record RefreshTokenGraceView(byte[] graceToken, Instant rotatedAt, Instant expiryDate, String username, String familyId) {
+}
@@ -0,0 +1,11 @@
+package com.example.AuthService.models;
+
+import java.time.Instant;
+
+/**
+ * Read model of a refresh token with just what the refresh endpoint needs, so the lookup does not
+ * hydrate the user entity and its roles.
+ */
+public record RefreshTokenView(int id, Instant expiryDate, String userId, String username, String familyId,
+                               Instant familyExpiresAt) {
+}
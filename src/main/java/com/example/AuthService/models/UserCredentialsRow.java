@@ -0,0 +1,14 @@
+package com.example.AuthService.models;
+
+/**
+ * One row of the credentials query: the user's name and password hash with one of its role ids, or
+ * a null role id for a user without roles.
+ */
+public interface UserCredentialsRow {
+
+    String getUsername();
+
+    String getPassword();
+
+    Long getRoleId();
+}
@@ -0,0 +1,14 @@
+package com.example.AuthService.models;
+
+/**
+ * One line of a bulk import. Either {@code password} (hashed during import) or {@code passwordHash}
+ * (an existing BCrypt hash, stored as is) must be set.
+ */
+public record UserImportRecord(String username,
+                               String password,
+                               String passwordHash,
+                               String firstName,
+                               String lastName,
+                               String email,
+                               Long phoneNumber) {
+}
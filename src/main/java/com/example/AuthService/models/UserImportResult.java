@@ -0,0 +1,26 @@
+package com.example.AuthService.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one import line: created, duplicate, invalid or failed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserImportResult(long line, String username, String status, String userId, String message) {
+
+    public static UserImportResult created(long line, String username, String userId) {
+        return new UserImportResult(line, username, "created", userId, null);
+    }
+
+    public static UserImportResult duplicate(long line, String username) {
+        return new UserImportResult(line, username, "duplicate", null, "Username already exists");
+    }
+
+    public static UserImportResult invalid(long line, String username, String message) {
+        return new UserImportResult(line, username, "invalid", null, message);
+    }
+
+    public static UserImportResult failed(long line, String username, String message) {
+        return new UserImportResult(line, username, "failed", null, message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.AuthService.models;
+
+/**
+ * Public view of a user for listings: no password hash and no roles. Field names match what the
+ * listing returned when it serialized {@code UserInfo} directly.
+ */
+public record UserSummary(String userId, String username, String firstName, String lastName, String email, Long phoneNumber) {
+}
@@ -0,0 +1,27 @@
+package com.example.AuthService.repository;
+
+import com.example.AuthService.entities.RefreshTokenHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenHistoryRepository extends CrudRepository<RefreshTokenHistory, Integer> {
+
+    @Query("select h.familyId from RefreshTokenHistory h where h.tokenHash = :tokenHash")
+    Optional<String> findFamilyIdByTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    @Query("select h.id from RefreshTokenHistory h where h.expiryDate < :now order by h.expiryDate")
+    List<Integer> findExpiredIds(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("delete from RefreshTokenHistory h where h.id in :ids")
+    int deleteByIdIn(@Param("ids") List<Integer> ids);
+}
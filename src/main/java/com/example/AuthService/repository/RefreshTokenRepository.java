@@ -1,13 +1,56 @@
 package com.example.AuthService.repository;
 
 import com.example.AuthService.entities.RefreshToken;
+import com.example.AuthService.models.RefreshTokenGraceView;
+import com.example.AuthService.models.RefreshTokenView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends CrudRepository<RefreshToken, Integer> {
 
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    @Query("select new com.example.AuthService.models.RefreshTokenView(rt.id, rt.expiryDate, u.userId, u.username, "
+            + "rt.familyId, coalesce(rt.familyExpiresAt, rt.expiryDate)) "
+            + "from RefreshToken rt join rt.userInfo u where rt.tokenHash = :tokenHash")
+    Optional<RefreshTokenView> findViewByTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    @Query("select rt.id from RefreshToken rt where rt.expiryDate < :now order by rt.expiryDate")
+    List<Integer> findExpiredIds(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("delete from RefreshToken rt where rt.id in :ids")
+    int deleteByIdIn(@Param("ids") List<Integer> ids);
+
+    @Query("select new com.example.AuthService.models.RefreshTokenGraceView(rt.graceToken, rt.rotatedAt, rt.expiryDate, u.username, "
+            + "rt.familyId) "
+            + "from RefreshToken rt join rt.userInfo u where rt.previousTokenHash = :tokenHash")
+    Optional<RefreshTokenGraceView> findGraceViewByPreviousTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    // compare-and-swap: only the caller presenting the current, unexpired hash wins; the sliding
+    // expiry is capped at the family's absolute expiry (rows without one keep their current expiry)
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken rt set rt.previousTokenHash = :oldHash, rt.tokenHash = :newHash, "
+            + "rt.rotatedAt = :now, rt.graceToken = :graceToken, "
+            + "rt.expiryDate = case when coalesce(rt.familyExpiresAt, rt.expiryDate) < :expiryDate "
+            + "then coalesce(rt.familyExpiresAt, rt.expiryDate) else :expiryDate end "
+            + "where rt.tokenHash = :oldHash and rt.expiryDate > :now")
+    int rotate(@Param("oldHash") byte[] oldHash, @Param("newHash") byte[] newHash, @Param("graceToken") byte[] graceToken,
+               @Param("expiryDate") Instant expiryDate, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken rt where rt.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") String familyId);
 }
@@ -1,11 +1,48 @@
 package com.example.AuthService.repository;
 
 import com.example.AuthService.entities.UserInfo;
+import com.example.AuthService.models.UserCredentialsRow;
+import com.example.AuthService.models.UserSummary;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface UserRepository extends CrudRepository<UserInfo, String> {
 
     public UserInfo findByUsername(String username);
+
+    boolean existsByUsername(String username);
+
+    // username, password and role ids in one statement; role names come from the RoleDictionary, so no join to roles
+    @Query(value = "select u.username as username, u.password as password, ur.role_id as roleId "
+            + "from users u left join user_roles ur on ur.user_id = u.user_id where u.username = :username",
+            nativeQuery = true)
+    List<UserCredentialsRow> findCredentialsByUsername(@Param("username") String username);
+
+    // MySQL Connector/J only honours the fetch size with useCursorFetch=true on the JDBC URL;
+    // without it the driver buffers the whole result set before the stream yields a row
+    @Query("select u.username from UserInfo u")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamAllUsernames();
+
+    // keyset pagination on the primary key: each page is an index range scan, whatever the offset
+    @Query("select new com.example.AuthService.models.UserSummary(u.userId, u.username, u.firstName, u.lastName, u.email, u.phoneNumber) "
+            + "from UserInfo u where u.userId > :after order by u.userId")
+    List<UserSummary> findSummariesAfter(@Param("after") String after, Pageable pageable);
+
+    @Query("select new com.example.AuthService.models.UserSummary(u.userId, u.username, u.firstName, u.lastName, u.email, u.phoneNumber) "
+            + "from UserInfo u order by u.userId")
+    // streams in fetch-size chunks only with useCursorFetch=true on the JDBC URL, see streamAllUsernames
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<UserSummary> streamAllSummaries();
 }
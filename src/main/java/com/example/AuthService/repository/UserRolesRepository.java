@@ -0,0 +1,13 @@
+package com.example.AuthService.repository;
+
+import com.example.AuthService.entities.UserRoles;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserRolesRepository extends CrudRepository<UserRoles, Long> {
+
+    List<UserRoles> findAllByOrderByRoleIdAsc();
+}
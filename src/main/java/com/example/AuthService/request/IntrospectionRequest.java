@@ -0,0 +1,14 @@
+package com.example.AuthService.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntrospectionRequest {
+    private List<String> tokens;
+}
@@ -0,0 +1,6 @@
+package com.example.AuthService.response;
+
+import java.util.List;
+
+public record IntrospectionResponse(List<TokenIntrospection> results) {
+}
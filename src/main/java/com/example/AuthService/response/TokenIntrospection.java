@@ -0,0 +1,19 @@
+package com.example.AuthService.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Introspection result for one token, in the order it was submitted. Inactive tokens carry nothing
+ * but {@code active=false}, so a caller learns no claims from a token that is not valid.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospection(boolean active, String sub, Long exp, List<String> authorities) {
+
+    private static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null, null);
+
+    public static TokenIntrospection inactive() {
+        return INACTIVE;
+    }
+}
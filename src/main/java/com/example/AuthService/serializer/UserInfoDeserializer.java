@@ -0,0 +1,33 @@
+package com.example.AuthService.serializer;
+
+import com.example.AuthService.eventProducer.UserInfoEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads {@link UserInfoEvent}s written by {@link UserInfoSerializer} in either format; binary
+ * records are recognised by their leading magic byte.
+ */
+public class UserInfoDeserializer implements Deserializer<UserInfoEvent> {
+
+    private static final ObjectReader READER = new ObjectMapper().readerFor(UserInfoEvent.class);
+
+    @Override
+    public UserInfoEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (UserInfoEventCodec.isBinary(data)) {
+            return UserInfoEventCodec.decode(data);
+        }
+        try {
+            return READER.readValue(data);
+        } catch (IOException e) {
+            throw new SerializationException("Unable to deserialize UserInfoEvent", e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.AuthService.serializer;
+
+import com.example.AuthService.eventProducer.UserInfoEvent;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of {@link UserInfoEvent}: a magic byte and a format version followed by
+ * the fields in declaration order. Strings are a varint of (UTF-8 length + 1), 0 meaning null, and
+ * the phone number is a presence byte followed by 8 big-endian bytes. Encoding sizes the output
+ * first and writes into a single array without intermediate strings or buffers.
+ */
+public final class UserInfoEventCodec {
+
+    // never the first byte of a JSON document, so consumers can tell both formats apart
+    public static final byte MAGIC = (byte) 0xAE;
+
+    public static final byte VERSION = 1;
+
+    private UserInfoEventCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(UserInfoEvent event) {
+        int size = 2
+                + stringSize(event.userId())
+                + stringSize(event.firstName())
+                + stringSize(event.lastName())
+                + stringSize(event.email())
+                + (event.phoneNumber() == null ? 1 : 9);
+        byte[] out = new byte[size];
+        out[0] = MAGIC;
+        out[1] = VERSION;
+        int pos = 2;
+        pos = writeString(out, pos, event.userId());
+        pos = writeString(out, pos, event.firstName());
+        pos = writeString(out, pos, event.lastName());
+        pos = writeString(out, pos, event.email());
+        if (event.phoneNumber() == null) {
+            out[pos] = 0;
+        } else {
+            out[pos++] = 1;
+            long phoneNumber = event.phoneNumber();
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out[pos++] = (byte) (phoneNumber >>> shift);
+            }
+        }
+        return out;
+    }
+
+    public static UserInfoEvent decode(byte[] data) {
+        if (!isBinary(data) || data.length < 2) {
+            throw new SerializationException("Not a binary UserInfoEvent");
+        }
+        if (data[1] != VERSION) {
+            throw new SerializationException("Unsupported UserInfoEvent binary version " + data[1]);
+        }
+        try {
+            Reader reader = new Reader(data, 2);
+            String userId = reader.readString();
+            String firstName = reader.readString();
+            String lastName = reader.readString();
+            String email = reader.readString();
+            Long phoneNumber = reader.readNullableLong();
+            return new UserInfoEvent(firstName, lastName, email, phoneNumber, userId);
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated binary UserInfoEvent", e);
+        }
+    }
+
+    private static int stringSize(String value) {
+        if (value == null) {
+            return 1;
+        }
+        int length = utf8Length(value);
+        return varIntSize(length + 1) + length;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarInt(byte[] out, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int writeString(byte[] out, int pos, String value) {
+        if (value == null) {
+            return writeVarInt(out, pos, 0);
+        }
+        pos = writeVarInt(out, pos, utf8Length(value) + 1);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xC0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                out[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                // unpaired surrogates are written as-is (3 bytes), like the JDK's modified encoders
+                out[pos++] = (byte) (0xE0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int pos;
+
+        private Reader(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in binary UserInfoEvent");
+        }
+
+        private String readString() {
+            int length = readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            length--;
+            // a five-byte varint can set the sign bit
+            if (length < 0) {
+                throw new SerializationException("Negative string length in binary UserInfoEvent");
+            }
+            if (length > data.length - pos) {
+                throw new SerializationException("Truncated binary UserInfoEvent");
+            }
+            String value = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        private Long readNullableLong() {
+            if (data[pos++] == 0) {
+                return null;
+            }
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[pos++] & 0xFF);
+            }
+            return value;
+        }
+    }
+}
@@ -1,21 +1,44 @@
 package com.example.AuthService.serializer;
 
 import com.example.AuthService.eventProducer.UserInfoEvent;
-import com.example.AuthService.models.UserInfoDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.serialization.Serializer;
 
+import java.util.Map;
+
+/**
+ * Writes {@link UserInfoEvent}s as UTF-8 JSON (default) or, with {@code user.info.serializer.format=binary},
+ * in the compact {@link UserInfoEventCodec} format. {@link UserInfoDeserializer} reads both.
+ */
 public class UserInfoSerializer implements Serializer<UserInfoEvent> {
 
+    public static final String FORMAT_CONFIG = "user.info.serializer.format";
+
+    private static final ObjectWriter WRITER = new ObjectMapper().writerFor(UserInfoEvent.class);
+
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        binary = format != null && "binary".equalsIgnoreCase(format.toString());
+    }
+
     @Override
     public byte[] serialize(String s, UserInfoEvent userInfoEvent) {
-        byte[] val = null;
-        ObjectMapper objectMapper = new ObjectMapper();
+        if (userInfoEvent == null) {
+            return null;
+        }
+        if (binary) {
+            return UserInfoEventCodec.encode(userInfoEvent);
+        }
         try {
-            val = objectMapper.writeValueAsString(userInfoEvent).getBytes();
-        } catch (Exception e) {
-            e.printStackTrace();
+            return WRITER.writeValueAsBytes(userInfoEvent);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Unable to serialize UserInfoEvent for " + userInfoEvent.userId(), e);
         }
-        return val;
     }
 }
@@ -0,0 +1,73 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.eventProducer.TokenRevocationProducer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Access tokens revoked before their expiry, keyed by jti. An entry is only useful until the token
+ * would have expired anyway, so the map holds at most one token lifetime of revocations and is
+ * purged on a schedule. Revocations are broadcast so every replica rejects the token.
+ */
+@Component
+@Slf4j
+public class AccessTokenRevocationList {
+
+    // jti -> token expiry in epoch millis
+    private final ConcurrentMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final TokenRevocationProducer tokenRevocationProducer;
+
+    public AccessTokenRevocationList(TokenRevocationProducer tokenRevocationProducer, MeterRegistry meterRegistry) {
+        this.tokenRevocationProducer = tokenRevocationProducer;
+        Gauge.builder("auth.revoked-tokens", revoked, ConcurrentMap::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        // nearly every request sees an empty map; tokens minted before jti was added cannot be revoked
+        if (jti == null || revoked.isEmpty()) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public void revoke(ValidatedToken token) {
+        if (token.jti() == null) {
+            throw new IllegalArgumentException("Token has no jti and cannot be revoked");
+        }
+        if (applyRemote(token.jti(), token.expiresAt())) {
+            tokenRevocationProducer.sendRevocation(token.jti(), token.expiresAt());
+        }
+    }
+
+    /**
+     * Records a revocation without broadcasting it. Returns false when the token has already expired.
+     */
+    public boolean applyRemote(String jti, Instant expiresAt) {
+        long expiresAtMillis = expiresAt.toEpochMilli();
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return false;
+        }
+        revoked.put(jti, expiresAtMillis);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.token-revocation.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    int size() {
+        return revoked.size();
+    }
+}
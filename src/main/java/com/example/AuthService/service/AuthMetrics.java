@@ -0,0 +1,84 @@
+package com.example.AuthService.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters for the stages of the authentication pipeline. Every stage is recorded under
+ * {@code auth.stage} tagged with the stage name, an outcome and the exception type on failure, so
+ * one query breaks a slow login down into lookup, hashing, signing and so on. Meters are cached
+ * per stage, so the successful path does not allocate.
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String STAGE_TIMER = "auth.stage";
+    public static final String EVENT_COUNTER = "auth.events";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> successTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Map<String, Counter>> counters = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(String stage, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            record(stage, start, null);
+            return result;
+        } catch (RuntimeException | Error e) {
+            record(stage, start, e);
+            throw e;
+        }
+    }
+
+    public void time(String stage, Runnable action) {
+        time(stage, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records a stage that started at {@code startNanos} ({@link System#nanoTime()}), for work that
+     * completes asynchronously. A null {@code failure} means success.
+     */
+    public void record(String stage, long startNanos, Throwable failure) {
+        long elapsed = System.nanoTime() - startNanos;
+        Timer timer = failure == null
+                ? successTimers.computeIfAbsent(stage, name -> stageTimer(name, "success", "none"))
+                : stageTimer(stage, "error", failure.getClass().getSimpleName());
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a business outcome of a flow, e.g. ("signup", "duplicate") or ("filter", "revoked").
+     */
+    public void count(String event, String outcome) {
+        counters.computeIfAbsent(event, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, name -> Counter.builder(EVENT_COUNTER)
+                        .tag("event", event)
+                        .tag("outcome", name)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Timer stageTimer(String stage, String outcome, String exception) {
+        return Timer.builder(STAGE_TIMER)
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+}
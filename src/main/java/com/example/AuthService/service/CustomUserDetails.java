@@ -1,38 +1,85 @@
 package com.example.AuthService.service;
 
-import com.example.AuthService.entities.UserInfo;
-import com.example.AuthService.entities.UserRoles;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class CustomUserDetails extends UserInfo implements UserDetails {
+/**
+ * Immutable principal holding only what authentication needs. Authority lists are interned per
+ * distinct role combination, so every user with the same roles shares one unmodifiable list and
+ * its {@link SimpleGrantedAuthority} instances instead of allocating them per load.
+ */
+public final class CustomUserDetails implements UserDetails {
 
-    private String username;
+    // keyed by the sorted, upper-cased role names; the number of distinct role combinations is small
+    private static final Map<List<String>, List<GrantedAuthority>> AUTHORITY_SETS = new ConcurrentHashMap<>();
 
-    private String password;
+    private final String username;
 
-    Collection<? extends GrantedAuthority> authorities ;
+    private final String password;
+
+    private final List<GrantedAuthority> authorities;
+
+    private final RoleSet roles;
+
+    public CustomUserDetails(String username, String password, Collection<String> authorityNames) {
+        this(username, password, null, authorities(authorityNames));
+    }
+
+    /**
+     * Principal for a user loaded from the database, with roles resolved through {@link RoleDictionary}.
+     */
+    public CustomUserDetails(String username, String password, RoleSet roles, List<GrantedAuthority> authorities) {
+        this.username = username;
+        this.password = password;
+        this.roles = roles;
+        this.authorities = authorities;
+    }
+
+    /**
+     * Principal built from a verified token's claims alone; it has no password.
+     */
+    public static CustomUserDetails fromToken(String username, Collection<String> authorityNames) {
+        return new CustomUserDetails(username, "", authorityNames);
+    }
+
+    /**
+     * Token principal that also carries the claims' roles as a {@link RoleSet}, or null roles when
+     * the claims name a role this node does not know.
+     */
+    public static CustomUserDetails fromToken(String username, Collection<String> authorityNames, RoleSet roles) {
+        return new CustomUserDetails(username, "", roles, authorities(authorityNames));
+    }
+
+    static List<GrantedAuthority> authorities(Collection<String> authorityNames) {
+        if (authorityNames.isEmpty()) {
+            return List.of();
+        }
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String name : authorityNames) {
+            normalized.add(name.toUpperCase(Locale.ROOT));
+        }
+        return AUTHORITY_SETS.computeIfAbsent(List.copyOf(normalized),
+                names -> names.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList());
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
     }
 
-    public CustomUserDetails(UserInfo byUsername) {
-        this.username = byUsername.getUsername();
-        this.password = byUsername.getPassword();
-        List<GrantedAuthority> auths = new ArrayList<>();
-
-        for(UserRoles role : byUsername.getRoles()){
-            auths.add(new SimpleGrantedAuthority(role.getRoleName().toUpperCase()));
-        }
-        this.authorities = auths;
+    /**
+     * The user's roles as a bitset, or null for a principal built from names alone.
+     */
+    public RoleSet getRoles() {
+        return roles;
     }
 
     @Override
@@ -64,4 +111,19 @@ public class CustomUserDetails extends UserInfo implements UserDetails {
     public boolean isEnabled() {
         return true;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CustomUserDetails details && username.equals(details.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return username.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "CustomUserDetails[username=" + username + ", authorities=" + authorities + "]";
+    }
 }
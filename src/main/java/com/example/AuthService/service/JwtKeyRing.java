@@ -0,0 +1,355 @@
+package com.example.AuthService.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Holds the JWT signing keys, decoded once, together with a parser that is built once per key set.
+ * Minted tokens carry the active key id in their {@code kid} header and verification resolves the
+ * key by that id, so keys can be rotated at runtime by swapping in a new immutable snapshot.
+ * Keys are either HMAC secrets or asymmetric key pairs (RS256, ES256, EdDSA); the public halves of
+ * the latter are published as a JWK set.
+ * <p>
+ * The built-in secret is public, so it is only used in HS256 mode with no configured keys. When an
+ * asymmetric key signs, HMAC keys are accepted only if they were configured explicitly, and only
+ * until {@code jwt.signing.hmac-verify-until}.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    public static final String DEFAULT_KID = "default";
+
+    private static final String HMAC_ALGORITHM = "HS256";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    private final Path keysFile;
+
+    private volatile long keysFileModified = -1;
+
+    public JwtKeyRing(@Value("${jwt.signing.keys:}") String keys,
+                      @Value("${jwt.signing.active-kid:}") String activeKid,
+                      @Value("${jwt.signing.keys-file:}") String keysFile,
+                      @Value("${jwt.signing.algorithm:HS256}") String algorithm,
+                      @Value("${jwt.signing.private-key:}") String privateKey,
+                      @Value("${jwt.signing.public-key:}") String publicKey,
+                      @Value("${jwt.signing.hmac-verify-until:}") String hmacVerifyUntil) {
+        this.keysFile = keysFile.isBlank() ? null : Path.of(keysFile);
+        if (this.keysFile != null) {
+            reload();
+        }
+        if (current.get() == null) {
+            Map<String, KeyEntry> parsed = parseKeys(keys);
+            Instant sunset = parseSunset(hmacVerifyUntil);
+            if (HMAC_ALGORITHM.equals(algorithm)) {
+                if (parsed.isEmpty()) {
+                    parsed.put(DEFAULT_KID, hmacEntry(DEFAULT_KID, JwtService.SECRET_KEY));
+                }
+            } else {
+                // configured HMAC keys stay verification-only so tokens minted before the switch remain valid
+                KeyEntry asymmetric = asymmetricEntry(activeKid, algorithm, privateKey, publicKey);
+                checkHmacKeys(parsed, sunset);
+                parsed.put(asymmetric.kid(), asymmetric);
+                activeKid = asymmetric.kid();
+            }
+            install(parsed, activeKid, sunset);
+        }
+    }
+
+    public static JwtKeyRing fromSecret(String kid, String base64Secret) {
+        return new JwtKeyRing(kid + ":" + base64Secret, kid, "", HMAC_ALGORITHM, "", "", "");
+    }
+
+    public SigningKey activeKey() {
+        return current.get().active();
+    }
+
+    public JwtParser parser() {
+        return current.get().parser();
+    }
+
+    public long generation() {
+        return current.get().generation();
+    }
+
+    public String activeKid() {
+        return current.get().active().kid();
+    }
+
+    public JwkSet jwkSet() {
+        return current.get().jwkSet();
+    }
+
+    /**
+     * Adds (or replaces) a key and makes it the one used for signing. Previously installed keys stay
+     * available for verification until they are retired.
+     */
+    public synchronized void rotate(String kid, String base64Secret) {
+        Map<String, KeyEntry> keys = new LinkedHashMap<>(current.get().keys());
+        keys.put(kid, hmacEntry(kid, base64Secret));
+        install(keys, kid, current.get().hmacVerifyUntil());
+    }
+
+    public synchronized void rotate(String kid, KeyPair keyPair, String algorithm) {
+        Map<String, KeyEntry> keys = new LinkedHashMap<>(current.get().keys());
+        keys.put(kid, new KeyEntry(kid, keyPair.getPublic(), keyPair.getPrivate(), signatureAlgorithm(algorithm)));
+        install(keys, kid, current.get().hmacVerifyUntil());
+    }
+
+    public synchronized void retire(String kid) {
+        Snapshot snapshot = current.get();
+        if (snapshot.active().kid().equals(kid)) {
+            throw new IllegalArgumentException("Cannot retire the active signing key " + kid);
+        }
+        Map<String, KeyEntry> keys = new LinkedHashMap<>(snapshot.keys());
+        if (keys.remove(kid) != null) {
+            install(keys, snapshot.active().kid(), snapshot.hmacVerifyUntil());
+        }
+    }
+
+    /**
+     * Re-reads the keys file when it changed. Entries are {@code keys.<kid>=<base64 secret>} for
+     * HMAC keys and {@code algorithm.<kid>}, {@code public-key.<kid>} and optionally
+     * {@code private-key.<kid>} (PEM file paths) for asymmetric keys; a public key without a private
+     * key is published and accepted for verification but never used for signing. {@code active-kid}
+     * is required; a file without it is rejected. When the active key is asymmetric, HMAC keys in the
+     * file also need {@code hmac-verify-until} (an ISO-8601 instant).
+     */
+    @Scheduled(fixedDelayString = "${jwt.signing.reload-interval-ms:30000}")
+    public synchronized void reload() {
+        if (keysFile == null) {
+            return;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(keysFile).toMillis();
+            if (modified == keysFileModified) {
+                return;
+            }
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(keysFile)) {
+                properties.load(reader);
+            }
+            Map<String, KeyEntry> keys = new LinkedHashMap<>();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith("keys.")) {
+                    String kid = name.substring("keys.".length());
+                    keys.put(kid, hmacEntry(kid, properties.getProperty(name).trim()));
+                } else if (name.startsWith("public-key.")) {
+                    String kid = name.substring("public-key.".length());
+                    keys.put(kid, asymmetricEntry(kid, properties.getProperty("algorithm." + kid, ""),
+                            properties.getProperty("private-key." + kid, ""), properties.getProperty(name).trim()));
+                }
+            }
+            if (keys.isEmpty()) {
+                log.warn("JWT keys file {} contains no keys, keeping current key ring", keysFile);
+                return;
+            }
+            // properties have no order, so "the first key" would change as keys are added
+            String activeKid = properties.getProperty("active-kid", "").trim();
+            if (activeKid.isEmpty()) {
+                throw new IllegalArgumentException("JWT keys file " + keysFile + " must set active-kid");
+            }
+            Instant sunset = parseSunset(properties.getProperty("hmac-verify-until", ""));
+            if (!(keys.containsKey(activeKid) && keys.get(activeKid).verificationKey() instanceof SecretKey)) {
+                checkHmacKeys(keys, sunset);
+            }
+            install(keys, activeKid, sunset);
+            keysFileModified = modified;
+            log.info("Loaded JWT key ring from {} with active kid {}", keysFile, activeKid());
+        } catch (IOException | RuntimeException e) {
+            if (current.get() == null) {
+                throw new IllegalStateException("Unable to load JWT keys from " + keysFile, e);
+            }
+            log.error("Failed to reload JWT keys from {}, keeping current key ring", keysFile, e);
+        }
+    }
+
+    private void install(Map<String, KeyEntry> keys, String activeKid, Instant hmacVerifyUntil) {
+        String kid = activeKid == null || activeKid.isBlank() ? keys.keySet().iterator().next() : activeKid;
+        KeyEntry active = keys.get(kid);
+        if (active == null) {
+            throw new IllegalArgumentException("Active signing key " + kid + " is not in the key ring");
+        }
+        if (active.signingKey() == null) {
+            throw new IllegalArgumentException("Active signing key " + kid + " has no private key");
+        }
+        Map<String, KeyEntry> immutableKeys = Collections.unmodifiableMap(new LinkedHashMap<>(keys));
+        Snapshot previous = current.get();
+        long generation = previous == null ? 0 : previous.generation() + 1;
+        current.set(new Snapshot(generation, new SigningKey(kid, active.signingKey(), active.algorithm()),
+                immutableKeys, buildParser(immutableKeys, hmacVerifyUntil), buildJwkSet(immutableKeys), hmacVerifyUntil));
+    }
+
+    /**
+     * HMAC keys next to an asymmetric signing key must be configured explicitly, must not be the
+     * built-in secret, and must have a sunset.
+     */
+    private static void checkHmacKeys(Map<String, KeyEntry> keys, Instant hmacVerifyUntil) {
+        byte[] builtIn = Decoders.BASE64.decode(JwtService.SECRET_KEY);
+        for (KeyEntry entry : keys.values()) {
+            if (!(entry.verificationKey() instanceof SecretKey secretKey)) {
+                continue;
+            }
+            if (MessageDigest.isEqual(builtIn, secretKey.getEncoded())) {
+                throw new IllegalArgumentException("The built-in JWT secret is public and cannot be used with an asymmetric algorithm");
+            }
+            if (hmacVerifyUntil == null) {
+                throw new IllegalArgumentException("HMAC key " + entry.kid()
+                        + " next to an asymmetric signing key needs jwt.signing.hmac-verify-until");
+            }
+        }
+    }
+
+    private static Instant parseSunset(String value) {
+        return value == null || value.isBlank() ? null : Instant.parse(value.trim());
+    }
+
+    private static JwtParser buildParser(Map<String, KeyEntry> keys, Instant hmacVerifyUntil) {
+        // tokens minted before key ids were introduced carry no kid and were signed with the default key
+        KeyEntry legacyKey = keys.get(DEFAULT_KID);
+        return Jwts.parser()
+                .keyLocator(new LocatorAdapter<>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        KeyEntry key = kid == null ? legacyKey : keys.get(kid);
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+                        }
+                        if (hmacVerifyUntil != null && key.verificationKey() instanceof SecretKey
+                                && Instant.now().isAfter(hmacVerifyUntil)) {
+                            throw new UnsupportedJwtException("HMAC signing key " + key.kid() + " is past its sunset");
+                        }
+                        return key.verificationKey();
+                    }
+                })
+                .build();
+    }
+
+    private static JwkSet buildJwkSet(Map<String, KeyEntry> keys) {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (KeyEntry entry : keys.values()) {
+            if (entry.verificationKey() instanceof PublicKey publicKey) {
+                Map<String, Object> jwk = new LinkedHashMap<>(Jwks.builder().key(publicKey).id(entry.kid()).build());
+                jwk.put("alg", entry.algorithm().getId());
+                jwk.put("use", "sig");
+                jwks.add(jwk);
+            }
+        }
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsBytes(Map.of("keys", jwks));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+            return new JwkSet(json, etag);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to build the JWK set", e);
+        }
+    }
+
+    private static Map<String, KeyEntry> parseKeys(String keys) {
+        Map<String, KeyEntry> parsed = new LinkedHashMap<>();
+        for (String entry : keys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("JWT signing keys must be given as kid:base64Secret");
+            }
+            String kid = entry.substring(0, separator).trim();
+            parsed.put(kid, hmacEntry(kid, entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+
+    private static KeyEntry hmacEntry(String kid, String base64Secret) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+        return new KeyEntry(kid, key, key, signatureAlgorithm(HMAC_ALGORITHM));
+    }
+
+    private static KeyEntry asymmetricEntry(String kid, String algorithm, String privateKeyPath, String publicKeyPath) {
+        SecureDigestAlgorithm<Key, ?> signatureAlgorithm = signatureAlgorithm(algorithm);
+        PublicKey publicKey;
+        PrivateKey privateKey = null;
+        if (publicKeyPath.isBlank()) {
+            if (!privateKeyPath.isBlank()) {
+                throw new IllegalArgumentException("jwt.signing.public-key is required with jwt.signing.private-key");
+            }
+            log.warn("No key pair configured for {}, generating an ephemeral one; tokens will not survive a restart "
+                    + "and are not shared between replicas", algorithm);
+            KeyPair keyPair = ((SignatureAlgorithm) Jwts.SIG.get().forKey(algorithm)).keyPair().build();
+            publicKey = keyPair.getPublic();
+            privateKey = keyPair.getPrivate();
+        } else {
+            String keyFactoryAlgorithm = PemKeys.keyFactoryAlgorithm(algorithm);
+            publicKey = PemKeys.readPublicKey(Path.of(publicKeyPath), keyFactoryAlgorithm);
+            if (!privateKeyPath.isBlank()) {
+                privateKey = PemKeys.readPrivateKey(Path.of(privateKeyPath), keyFactoryAlgorithm);
+            }
+        }
+        String resolvedKid = kid == null || kid.isBlank()
+                ? Jwks.builder().key(publicKey).idFromThumbprint().build().getId()
+                : kid;
+        return new KeyEntry(resolvedKid, publicKey, privateKey, signatureAlgorithm);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SecureDigestAlgorithm<Key, ?> signatureAlgorithm(String algorithm) {
+        return (SecureDigestAlgorithm<Key, ?>) Jwts.SIG.get().forKey(algorithm);
+    }
+
+    public record SigningKey(String kid, Key key, SecureDigestAlgorithm<Key, ?> algorithm) {
+    }
+
+    /**
+     * Serialized JWK set of the public verification keys together with its entity tag.
+     */
+    public record JwkSet(byte[] json, String etag) {
+    }
+
+    private record KeyEntry(String kid, Key verificationKey, Key signingKey, SecureDigestAlgorithm<Key, ?> algorithm) {
+    }
+
+    private record Snapshot(long generation, SigningKey active, Map<String, KeyEntry> keys, JwtParser parser,
+                            JwkSet jwkSet, Instant hmacVerifyUntil) {
+    }
+}
@@ -2,26 +2,44 @@ package com.example.AuthService.service;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.MalformedJwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import java.security.Key;
-import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
     public static final String SECRET_KEY = "OWU4MjFmYTRkMTg4YzMwMjhjY2JhYzBiMTNhZmU5NTU5ZGU0ZDY2N2EyYjhiYzU5ZjRhM2NmZDI0ODY2YmQwZg==";
 
+    private final JwtKeyRing keyRing;
+
+    private final VerifiedTokenCache tokenCache;
+
+    public JwtService() {
+        this(JwtKeyRing.fromSecret(JwtKeyRing.DEFAULT_KID, SECRET_KEY));
+    }
+
+    public JwtService(JwtKeyRing keyRing) {
+        this(keyRing, VerifiedTokenCache.disabled());
+    }
+
+    @Autowired
+    public JwtService(JwtKeyRing keyRing, VerifiedTokenCache tokenCache) {
+        this.keyRing = keyRing;
+        this.tokenCache = tokenCache;
+    }
+
    public String extractUsername(String token){
        return extractClaim(token, Claims::getSubject);
    }
@@ -40,35 +58,68 @@ public class JwtService {
    }
 
    public Boolean validateToken(String token, UserDetails userDetails){
-       final String username = extractUsername(token);
-       return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+       return validate(token).isValidFor(userDetails);
+   }
+
+   /**
+    * Verifies the signature and decodes the claims exactly once; callers that need more than one
+    * claim should use the returned view instead of the individual extract methods. Tokens that were
+    * verified before are served from the verified-token cache when it is enabled.
+    */
+   public ValidatedToken validate(String token){
+       return tokenCache.get(token, keyRing.generation(), this::verify);
+   }
+
+   private ValidatedToken verify(String token){
+       final Claims claims = extractAllClaims(token);
+       if (claims.getExpiration() == null) {
+           throw new MalformedJwtException("Token has no expiration");
+       }
+       return new ValidatedToken(claims.getSubject(), claims.getExpiration().toInstant(),
+               extractAuthorities(claims), claims.getId());
    }
 
    public String createToken(Map<String, Object> claims, String username){
+       JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
        return Jwts.builder()
-               .setClaims(claims)
-               .setSubject(username)
-               .setIssuedAt(new Date(System.currentTimeMillis()))
-               .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60))
-               .signWith(getSignKey(), SignatureAlgorithm.HS256)
+               .header().keyId(signingKey.kid()).and()
+               .claims(claims)
+               .subject(username)
+               .id(UUID.randomUUID().toString())
+               .issuedAt(new Date(System.currentTimeMillis()))
+               .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60))
+               .signWith(signingKey.key(), signingKey.algorithm())
                .compact();
    }
 
    private Claims extractAllClaims(String token){
-       return Jwts
-               .parser()
-               .setSigningKey(getSignKey())
-               .build()
-               .parseClaimsJws(token)
-               .getBody();
+       return keyRing.parser()
+               .parseSignedClaims(token)
+               .getPayload();
    }
 
-   private Key getSignKey(){
-       byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-       return Keys.hmacShaKeyFor(keyBytes);
+   private List<String> extractAuthorities(Claims claims){
+       Object authorities = claims.get(AUTHORITIES_CLAIM);
+       if (!(authorities instanceof Collection<?> values)) {
+           return null;
+       }
+       return values.stream().map(String::valueOf).toList();
    }
 
    public String GenerateToken(String username){
        return createToken(Map.of(), username);
    }
+
+   /**
+    * Mints a token that carries the user's authorities so the principal can be rebuilt from the
+    * verified claims without loading the user.
+    */
+   public String GenerateToken(String username, Collection<? extends GrantedAuthority> authorities){
+       List<String> authorityNames = authorities.stream().map(GrantedAuthority::getAuthority).toList();
+       return createToken(Map.of(AUTHORITIES_CLAIM, authorityNames), username);
+   }
+
+   public String GenerateToken(UserDetails userDetails){
+       return GenerateToken(userDetails.getUsername(), userDetails.getAuthorities());
+   }
 }
@@ -0,0 +1,60 @@
+package com.example.AuthService.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Reads PKCS#8 private keys and X.509 (SubjectPublicKeyInfo) public keys from PEM files.
+ */
+final class PemKeys {
+
+    private PemKeys() {
+    }
+
+    static String keyFactoryAlgorithm(String signatureAlgorithm) {
+        if (signatureAlgorithm.startsWith("RS") || signatureAlgorithm.startsWith("PS")) {
+            return "RSA";
+        }
+        if (signatureAlgorithm.startsWith("ES")) {
+            return "EC";
+        }
+        if (signatureAlgorithm.equals("EdDSA")) {
+            return "EdDSA";
+        }
+        throw new IllegalArgumentException("Unsupported asymmetric signature algorithm " + signatureAlgorithm);
+    }
+
+    static PrivateKey readPrivateKey(Path path, String keyFactoryAlgorithm) {
+        try {
+            return KeyFactory.getInstance(keyFactoryAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(decode(path)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid private key in " + path, e);
+        }
+    }
+
+    static PublicKey readPublicKey(Path path, String keyFactoryAlgorithm) {
+        try {
+            return KeyFactory.getInstance(keyFactoryAlgorithm).generatePublic(new X509EncodedKeySpec(decode(path)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid public key in " + path, e);
+        }
+    }
+
+    private static byte[] decode(Path path) {
+        try {
+            String pem = Files.readString(path);
+            String body = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+            return Base64.getDecoder().decode(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read key file " + path, e);
+        }
+    }
+}
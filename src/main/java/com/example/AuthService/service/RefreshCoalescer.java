@@ -0,0 +1,90 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.response.JwtResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent refreshes of the same refresh token on this node into one rotation. Callers
+ * arriving while a refresh is in flight wait for its result, and callers arriving shortly after get
+ * the same response from a grace cache, so they do not each mint a new access token.
+ * <p>
+ * This is only an optimization: it cannot see refreshes handled by other replicas. Keeping a late
+ * duplicate from revoking the family is enforced in the database by
+ * {@link RefreshTokenService#rotateRefreshToken}, which answers it with the successor.
+ */
+@Component
+public class RefreshCoalescer {
+
+    private final ConcurrentMap<ByteBuffer, CompletableFuture<JwtResponseDto>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<ByteBuffer, JwtResponseDto> recentlyRefreshed;
+    private final Counter coalesced;
+
+    public RefreshCoalescer(@Value("${auth.refresh-token.grace-ms:10000}") long graceMs,
+                            @Value("${auth.refresh-token.grace-maximum-size:10000}") long maximumSize,
+                            MeterRegistry meterRegistry) {
+        this.recentlyRefreshed = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(graceMs))
+                .maximumSize(maximumSize)
+                .build();
+        this.coalesced = Counter.builder("auth.refresh.coalesced")
+                .description("Refresh requests answered by another request's rotation")
+                .register(meterRegistry);
+    }
+
+    public JwtResponseDto refresh(String token, Supplier<JwtResponseDto> refresher) {
+        // keyed by digest so raw refresh tokens are not kept as map keys
+        ByteBuffer key = ByteBuffer.wrap(RefreshTokenService.hash(token));
+        JwtResponseDto recent = recentlyRefreshed.getIfPresent(key);
+        if (recent != null) {
+            coalesced.increment();
+            return recent;
+        }
+        CompletableFuture<JwtResponseDto> mine = new CompletableFuture<>();
+        CompletableFuture<JwtResponseDto> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            // the previous leader publishes to the grace cache before leaving the map, so check again
+            JwtResponseDto response = recentlyRefreshed.getIfPresent(key);
+            if (response != null) {
+                coalesced.increment();
+            } else {
+                response = refresher.get();
+                recentlyRefreshed.put(key, response);
+            }
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static JwtResponseDto await(CompletableFuture<JwtResponseDto> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
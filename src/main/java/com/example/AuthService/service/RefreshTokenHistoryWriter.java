@@ -0,0 +1,87 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.entities.RefreshTokenHistory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes rotated-out refresh token hashes to the history table in JDBC batches, off the refresh
+ * request path. A hash only decides whether replaying it revokes the whole family: a rotated-out
+ * token is rejected either way, and the generation just before the current one is recognised from
+ * the token row itself. Rows still queued when a node dies, or when the queue is full, are lost,
+ * which only means a late replay of those generations is rejected without revoking the family.
+ */
+@Component
+@Slf4j
+public class RefreshTokenHistoryWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<RefreshTokenHistory> pending;
+    private final int batchSize;
+    private final Counter written;
+    private final Counter dropped;
+
+    public RefreshTokenHistoryWriter(JdbcTemplate jdbcTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${auth.refresh-token.history.queue-capacity:100000}") int queueCapacity,
+                                     @Value("${auth.refresh-token.history.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.written = Counter.builder("auth.refresh-token-history.written")
+                .description("Rotated-out refresh token hashes written to the history table")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("auth.refresh-token-history.dropped")
+                .description("Rotated-out refresh token hashes never written because the queue was full or the write failed")
+                .register(meterRegistry);
+    }
+
+    public void record(byte[] tokenHash, String familyId, Instant familyExpiresAt) {
+        RefreshTokenHistory history = RefreshTokenHistory.builder()
+                .tokenHash(tokenHash)
+                .familyId(familyId)
+                .expiryDate(familyExpiresAt)
+                .build();
+        if (!pending.offer(history)) {
+            dropped.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token.history.flush-interval-ms:500}")
+    public void flush() {
+        List<RefreshTokenHistory> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate("insert into refresh_token_history (token_hash, family_id, expiry_date) values (?, ?, ?)",
+                        batch, batch.size(), (statement, history) -> {
+                            statement.setBytes(1, history.getTokenHash());
+                            statement.setString(2, history.getFamilyId());
+                            statement.setTimestamp(3, Timestamp.from(history.getExpiryDate()));
+                        });
+                written.increment(batch.size());
+            } catch (RuntimeException e) {
+                log.warn("Failed to write {} refresh token history rows: {}", batch.size(), e.getMessage());
+                dropped.increment(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+}
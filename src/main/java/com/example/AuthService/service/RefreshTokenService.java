@@ -2,44 +2,174 @@ package com.example.AuthService.service;
 
 import com.example.AuthService.entities.RefreshToken;
 import com.example.AuthService.entities.UserInfo;
+import com.example.AuthService.models.RefreshTokenGraceView;
+import com.example.AuthService.models.RefreshTokenView;
+import com.example.AuthService.repository.RefreshTokenHistoryRepository;
 import com.example.AuthService.repository.RefreshTokenRepository;
 import com.example.AuthService.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
+@Slf4j
 public class RefreshTokenService {
 
+    private static final Duration REFRESH_TOKEN_TTL = Duration.ofHours(1);
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     @Autowired
     RefreshTokenRepository refreshTokenRepository;
     @Autowired
+    RefreshTokenHistoryRepository refreshTokenHistoryRepository;
+    @Autowired
+    RefreshTokenHistoryWriter refreshTokenHistoryWriter;
+    @Autowired
     UserRepository userRepository;
+    @Autowired
+    AuthMetrics authMetrics;
+
+    // absolute lifetime of a login session; rotation slides the token expiry but never past this
+    @Value("${auth.refresh-token.family-ttl:7d}")
+    Duration familyTtl = Duration.ofDays(7);
+
+    // a token rotated less than this long ago is answered with its successor instead of revoking
+    @Value("${auth.refresh-token.grace-ms:10000}")
+    long graceMs = 10000;
 
     public RefreshToken createRefreshToken(String username){
+        return authMetrics.time("refresh-token.create", () -> insertRefreshToken(username));
+    }
+
+    private RefreshToken insertRefreshToken(String username){
         UserInfo userInfoExtracted = userRepository.findByUsername(username);
+        String token = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        Instant familyExpiresAt = now.plus(familyTtl);
+        Instant expiryDate = now.plus(REFRESH_TOKEN_TTL);
         RefreshToken refreshToken = RefreshToken.builder()
                 .userInfo(userInfoExtracted)
-                .token(UUID.randomUUID().toString())
-                .expiryDate(Instant.now().plusMillis(1000 * 60 * 60))
+                .token(token)
+                .tokenHash(hash(token))
+                .familyId(UUID.randomUUID().toString())
+                .expiryDate(expiryDate.isBefore(familyExpiresAt) ? expiryDate : familyExpiresAt)
+                .familyExpiresAt(familyExpiresAt)
                 .build();
         return refreshTokenRepository.save(refreshToken);
     }
 
-    public RefreshToken verifyRefreshToken(RefreshToken token){
-        if(token.getExpiryDate().compareTo(Instant.now()) < 0){
-            refreshTokenRepository.delete(token);
-            throw new RuntimeException(token.getToken() + " has expired");
+    /**
+     * Swaps the presented token for a new one with a conditional UPDATE and reads the rotated row
+     * back for the username: two statements, no explicit transaction. The old hash goes to the
+     * family's history through {@link RefreshTokenHistoryWriter}, off the request path. The new
+     * expiry never passes the family's absolute expiry, so a session ends at the latest family-ttl
+     * after login.
+     * <p>
+     * A token presented again within grace-ms of its rotation, as happens when a client retries or
+     * two replicas receive the same refresh, gets the successor back instead of a revocation. The
+     * successor is stored sealed under a key derived from the old token, so only a holder of that
+     * token can read it and a database dump does not yield usable refresh tokens. Any other reuse of
+     * a rotated-out token revokes the whole family: the previous generation is found on the token
+     * row by the same lookup that serves the grace window, older ones in the history.
+     */
+    public RotatedRefreshToken rotateRefreshToken(String token){
+        return authMetrics.time("refresh-token.rotate", () -> rotate(token));
+    }
+
+    private RotatedRefreshToken rotate(String token){
+        byte[] oldHash = hash(token);
+        String next = UUID.randomUUID().toString();
+        byte[] newHash = hash(next);
+        Instant now = Instant.now();
+        if(refreshTokenRepository.rotate(oldHash, newHash, seal(token, next), now.plus(REFRESH_TOKEN_TTL), now) == 1){
+            // a family revoked between the two statements takes the new row with it
+            RefreshTokenView view = refreshTokenRepository.findViewByTokenHash(newHash)
+                    .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token was revoked"));
+            refreshTokenHistoryWriter.record(oldHash, view.familyId(), view.familyExpiresAt());
+            authMetrics.count("refresh", "rotated");
+            return new RotatedRefreshToken(next, view.username());
         }
-        return token;
+        Optional<RefreshTokenGraceView> successor = refreshTokenRepository.findGraceViewByPreviousTokenHash(oldHash);
+        if(successor.isPresent() && withinGrace(successor.get(), now)){
+            authMetrics.count("refresh", "grace");
+            return new RotatedRefreshToken(unseal(token, successor.get().graceToken()), successor.get().username());
+        }
+        Optional<String> reusedFamily = successor.map(RefreshTokenGraceView::familyId)
+                .or(() -> refreshTokenHistoryRepository.findFamilyIdByTokenHash(oldHash));
+        if(reusedFamily.isPresent()){
+            log.warn("Rotated-out refresh token presented again, revoking family {}", reusedFamily.get());
+            refreshTokenRepository.deleteByFamilyId(reusedFamily.get());
+            authMetrics.count("refresh", "reused");
+        } else {
+            authMetrics.count("refresh", "invalid");
+        }
+        throw new InvalidRefreshTokenException("Refresh token is invalid or expired");
     }
 
     // repository should not be called in controller it should be called in service
     public Optional<RefreshToken> findByToken(String token){
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenRepository.findByTokenHash(hash(token));
+    }
+
+    private boolean withinGrace(RefreshTokenGraceView view, Instant now){
+        return view.graceToken() != null && view.rotatedAt() != null
+                && view.rotatedAt().plusMillis(graceMs).isAfter(now)
+                && view.expiryDate().isAfter(now);
+    }
+
+    // AES-GCM under SHA-256 of a domain prefix and the old token; distinct from the stored token hash
+    private static byte[] seal(String oldToken, String next){
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            RANDOM.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, graceKey(oldToken), new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(next.getBytes(StandardCharsets.UTF_8));
+            byte[] out = new byte[iv.length + sealed.length];
+            System.arraycopy(iv, 0, out, 0, iv.length);
+            System.arraycopy(sealed, 0, out, iv.length, sealed.length);
+            return out;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String unseal(String oldToken, byte[] sealed){
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, graceKey(oldToken), new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, GCM_IV_BYTES));
+            return new String(cipher.doFinal(sealed, GCM_IV_BYTES, sealed.length - GCM_IV_BYTES), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new InvalidRefreshTokenException("Refresh token is invalid or expired");
+        }
+    }
+
+    private static SecretKeySpec graceKey(String oldToken){
+        return new SecretKeySpec(hash("refresh-grace:" + oldToken), "AES");
+    }
+
+    public static byte[] hash(String token){
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
 }
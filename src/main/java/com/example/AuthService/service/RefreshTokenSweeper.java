@@ -0,0 +1,128 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.repository.RefreshTokenHistoryRepository;
+import com.example.AuthService.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Purges expired refresh tokens that were never presented again, and rotated-out hashes whose family
+ * has expired. Each batch selects a page of expired ids through the expiry_date index and deletes
+ * them by primary key in its own short transaction, pausing between batches so the sweep never holds
+ * locks for long.
+ * <p>
+ * Every replica runs the sweep. Overlapping runs are safe: ids are deleted in primary-key order, so
+ * two nodes deleting the same batch wait on each other instead of deadlocking; the node that loses
+ * deletes fewer rows than it selected and stops, and a lock timeout or deadlock also just ends the run.
+ */
+@Component
+@Slf4j
+public class RefreshTokenSweeper {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenHistoryRepository refreshTokenHistoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long pauseMs;
+    private final int maxBatches;
+    private final Counter purged;
+    private final Counter historyPurged;
+    private final Timer runTimer;
+
+    public RefreshTokenSweeper(RefreshTokenRepository refreshTokenRepository,
+                               RefreshTokenHistoryRepository refreshTokenHistoryRepository,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${auth.refresh-token.sweep.batch-size:1000}") int batchSize,
+                               @Value("${auth.refresh-token.sweep.pause-ms:50}") long pauseMs,
+                               @Value("${auth.refresh-token.sweep.max-batches:100}") int maxBatches) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenHistoryRepository = refreshTokenHistoryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        this.maxBatches = maxBatches;
+        this.purged = Counter.builder("auth.refresh-tokens.purged")
+                .description("Expired refresh tokens deleted by the sweeper")
+                .register(meterRegistry);
+        this.historyPurged = Counter.builder("auth.refresh-token-history.purged")
+                .description("Rotated-out refresh token hashes deleted by the sweeper after their family expired")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("auth.refresh-tokens.sweep")
+                .description("Duration of a refresh token sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token.sweep.interval-ms:300000}",
+            initialDelayString = "${auth.refresh-token.sweep.initial-delay-ms:60000}")
+    public void sweep() {
+        try {
+            int total = runTimer.recordCallable(this::purgeExpired);
+            if (total > 0) {
+                log.info("Purged {} expired refresh tokens", total);
+            }
+        } catch (InterruptedException e) {
+            // shutting down; leave the rest for the next run or another replica
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Refresh token sweep failed: {}", e.getMessage());
+        }
+    }
+
+    int purgeExpired() throws InterruptedException {
+        // a fixed cut-off keeps the sweep from chasing tokens that expire while it runs
+        Instant now = Instant.now();
+        int total = purge(() -> refreshTokenRepository.findExpiredIds(now, PageRequest.of(0, batchSize)),
+                refreshTokenRepository::deleteByIdIn, purged);
+        int history = purge(() -> refreshTokenHistoryRepository.findExpiredIds(now, PageRequest.of(0, batchSize)),
+                refreshTokenHistoryRepository::deleteByIdIn, historyPurged);
+        if (history > 0) {
+            log.info("Purged {} expired refresh token history rows", history);
+        }
+        return total;
+    }
+
+    private int purge(Supplier<List<Integer>> findExpired, Function<List<Integer>, Integer> deleteByIdIn,
+                      Counter counter) throws InterruptedException {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer deleted;
+            try {
+                deleted = transactionTemplate.execute(status -> deleteSorted(findExpired.get(), deleteByIdIn));
+            } catch (PessimisticLockingFailureException e) {
+                log.debug("Refresh token sweep yielded to a concurrent sweep: {}", e.getMessage());
+                break;
+            }
+            int count = deleted == null ? 0 : deleted;
+            total += count;
+            counter.increment(count);
+            if (count < batchSize) {
+                break;
+            }
+            if (pauseMs > 0) {
+                Thread.sleep(pauseMs);
+            }
+        }
+        return total;
+    }
+
+    private static int deleteSorted(List<Integer> ids, Function<List<Integer>, Integer> deleteByIdIn) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return deleteByIdIn.apply(ids.stream().sorted().toList());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.entities.UserRoles;
+import com.example.AuthService.repository.UserRolesRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the roles table that gives every role a bit, so a user's roles become a
+ * {@link RoleSet} and role checks become bit tests. Loaded at startup and reloaded on a schedule,
+ * or immediately when a user carries a role id it has not seen yet. Reloads run JDBC under a
+ * {@link ReentrantLock} rather than a monitor, so a virtual thread waiting for one never pins its
+ * carrier thread.
+ * <p>
+ * A role keeps its bit for the life of the process, including across reloads and after the role is
+ * deleted, so role sets held by cached principals never change meaning.
+ */
+@Component
+@Slf4j
+public class RoleDictionary {
+
+    private final UserRolesRepository userRolesRepository;
+
+    private final Map<RoleSet, List<GrantedAuthority>> authoritiesByRoleSet = new ConcurrentHashMap<>();
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    public RoleDictionary(UserRolesRepository userRolesRepository) {
+        this.userRolesRepository = userRolesRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Failed to load the role dictionary, loading it on first use: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.roles.refresh-interval-ms:300000}", initialDelayString = "${auth.roles.refresh-interval-ms:300000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            reload();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void reload() {
+        Snapshot previous = snapshot;
+        Map<Long, Integer> bitByRoleId = new HashMap<>();
+        Map<String, Integer> bitByName = new HashMap<>();
+        String[] nameByBit = previous == null ? new String[0] : Arrays.copyOf(previous.nameByBit, previous.nameByBit.length);
+        for (UserRoles role : userRolesRepository.findAllByOrderByRoleIdAsc()) {
+            Integer bit = previous == null ? null : previous.bitByRoleId.get(role.getRoleId());
+            if (bit == null) {
+                bit = nameByBit.length;
+                nameByBit = Arrays.copyOf(nameByBit, bit + 1);
+            }
+            String name = role.getRoleName().toUpperCase(Locale.ROOT);
+            nameByBit[bit] = name;
+            bitByRoleId.put(role.getRoleId(), bit);
+            bitByName.put(name, bit);
+        }
+        snapshot = new Snapshot(Map.copyOf(bitByRoleId), Map.copyOf(bitByName), nameByBit);
+        // a role may have been renamed
+        authoritiesByRoleSet.clear();
+        log.debug("Role dictionary loaded with {} roles", bitByRoleId.size());
+    }
+
+    public RoleSet encode(Collection<Long> roleIds) {
+        if (roleIds.isEmpty()) {
+            return RoleSet.EMPTY;
+        }
+        Snapshot current = snapshot();
+        if (!current.bitByRoleId.keySet().containsAll(roleIds)) {
+            current = reloadUnlessKnown(roleIds);
+        }
+        BitSet bits = new BitSet();
+        for (Long roleId : roleIds) {
+            Integer bit = current.bitByRoleId.get(roleId);
+            if (bit == null) {
+                log.warn("Ignoring unknown role id {}", roleId);
+                continue;
+            }
+            bits.set(bit);
+        }
+        return RoleSet.of(bits);
+    }
+
+    /**
+     * Role set for role names taken from a verified token, or null if one of them is not a known
+     * role, in which case checks fall back to comparing names. Unknown names do not trigger a
+     * reload, so tokens cannot force database reads.
+     */
+    public RoleSet encodeNames(Collection<String> roleNames) {
+        if (roleNames.isEmpty()) {
+            return RoleSet.EMPTY;
+        }
+        Map<String, Integer> bitByName = snapshot().bitByName;
+        BitSet bits = new BitSet();
+        for (String name : roleNames) {
+            Integer bit = bitByName.get(name.toUpperCase(Locale.ROOT));
+            if (bit == null) {
+                return null;
+            }
+            bits.set(bit);
+        }
+        return RoleSet.of(bits);
+    }
+
+    /**
+     * Bit of the named role, or -1 if there is no such role. Names are compared upper-cased, like
+     * authorities.
+     */
+    public int bit(String roleName) {
+        Integer bit = snapshot().bitByName.get(roleName.toUpperCase(Locale.ROOT));
+        return bit == null ? -1 : bit;
+    }
+
+    /**
+     * Authorities for a role set, shared by every principal with the same roles.
+     */
+    public List<GrantedAuthority> authorities(RoleSet roles) {
+        if (roles.isEmpty()) {
+            return List.of();
+        }
+        return authoritiesByRoleSet.computeIfAbsent(roles, key -> {
+            String[] nameByBit = snapshot().nameByBit;
+            return CustomUserDetails.authorities(key.bits().mapToObj(bit -> nameByBit[bit]).toList());
+        });
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = reloadUnlessKnown(List.of());
+        }
+        return current;
+    }
+
+    // callers that queue up behind one reload use its result instead of reloading again
+    private Snapshot reloadUnlessKnown(Collection<Long> roleIds) {
+        refreshLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null || !current.bitByRoleId.keySet().containsAll(roleIds)) {
+                reload();
+            }
+            return snapshot;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private record Snapshot(Map<Long, Integer> bitByRoleId, Map<String, Integer> bitByName, String[] nameByBit) {
+    }
+}
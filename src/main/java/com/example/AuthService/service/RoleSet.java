@@ -0,0 +1,52 @@
+package com.example.AuthService.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable bitset of a user's roles, one bit per role as assigned by {@link RoleDictionary}. Bit
+ * positions are local to this node, so a role set must never leave the process.
+ */
+public final class RoleSet {
+
+    public static final RoleSet EMPTY = new RoleSet(new long[0]);
+
+    private final long[] words;
+
+    private RoleSet(long[] words) {
+        this.words = words;
+    }
+
+    static RoleSet of(BitSet bits) {
+        return bits.isEmpty() ? EMPTY : new RoleSet(bits.toLongArray());
+    }
+
+    public boolean has(int bit) {
+        int word = bit >>> 6;
+        return bit >= 0 && word < words.length && (words[word] & (1L << bit)) != 0;
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    IntStream bits() {
+        return BitSet.valueOf(words).stream();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RoleSet roleSet && Arrays.equals(words, roleSet.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return BitSet.valueOf(words).toString();
+    }
+}
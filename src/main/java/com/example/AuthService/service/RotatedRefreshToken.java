@@ -0,0 +1,8 @@
+package com.example.AuthService.service;
+
+/**
+ * Outcome of a successful refresh token rotation: the new raw token for the client and the user it
+ * belongs to.
+ */
+public record RotatedRefreshToken(String token, String username) {
+}
@@ -0,0 +1,81 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.response.TokenIntrospection;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates batches of access tokens for gateways. Each token goes through {@link JwtService#validate}
+ * (and so through the verified-token cache) and the revocation list, exactly like the request filter.
+ */
+@Service
+public class TokenIntrospectionService {
+
+    private final JwtService jwtService;
+    private final AccessTokenRevocationList revocationList;
+    private final AuthMetrics authMetrics;
+    private final Duration maxCacheAge;
+
+    public TokenIntrospectionService(JwtService jwtService,
+                                     AccessTokenRevocationList revocationList,
+                                     AuthMetrics authMetrics,
+                                     @Value("${auth.introspection.max-cache-seconds:30}") long maxCacheSeconds) {
+        this.jwtService = jwtService;
+        this.revocationList = revocationList;
+        this.authMetrics = authMetrics;
+        this.maxCacheAge = Duration.ofSeconds(maxCacheSeconds);
+    }
+
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        return authMetrics.time("introspect", () -> {
+            List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                TokenIntrospection result = introspect(token);
+                authMetrics.count("introspect", result.active() ? "active" : "inactive");
+                results.add(result);
+            }
+            return results;
+        });
+    }
+
+    /**
+     * How long a gateway may reuse this response: never past the earliest expiry among the active
+     * tokens, and never longer than the configured bound, which caps how stale a revocation can get.
+     */
+    public Duration cacheAge(List<TokenIntrospection> results) {
+        Duration age = maxCacheAge;
+        long nowSeconds = Instant.now().getEpochSecond();
+        for (TokenIntrospection result : results) {
+            if (result.active()) {
+                Duration remaining = Duration.ofSeconds(Math.max(0, result.exp() - nowSeconds));
+                if (remaining.compareTo(age) < 0) {
+                    age = remaining;
+                }
+            }
+        }
+        return age;
+    }
+
+    private TokenIntrospection introspect(String token) {
+        if (token == null || token.isBlank()) {
+            return TokenIntrospection.inactive();
+        }
+        ValidatedToken validatedToken;
+        try {
+            validatedToken = jwtService.validate(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenIntrospection.inactive();
+        }
+        if (validatedToken.subject() == null || validatedToken.isExpired() || revocationList.isRevoked(validatedToken.jti())) {
+            return TokenIntrospection.inactive();
+        }
+        return new TokenIntrospection(true, validatedToken.subject(), validatedToken.expiresAt().getEpochSecond(),
+                validatedToken.authorities());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.AuthService.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based cache of loaded users keyed by username. Concurrent misses for the same
+ * username share a single load; unknown users are not cached.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, CustomUserDetails> cache;
+
+    public UserDetailsCache(@Value("${auth.user-cache.enabled:true}") boolean enabled,
+                            @Value("${auth.user-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${auth.user-cache.ttl-seconds:300}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.user-details");
+    }
+
+    public CustomUserDetails get(String username, Function<String, CustomUserDetails> loader) {
+        if (cache == null) {
+            return loader.apply(username);
+        }
+        return cache.get(username, loader);
+    }
+
+    public void invalidate(String username) {
+        if (cache != null) {
+            cache.invalidate(username);
+        }
+    }
+}
@@ -1,24 +1,33 @@
 package com.example.AuthService.service;
 
 import com.example.AuthService.entities.UserInfo;
+import com.example.AuthService.eventProducer.UserCacheInvalidationProducer;
 import com.example.AuthService.eventProducer.UserInfoEvent;
-import com.example.AuthService.eventProducer.UserInfoProducer;
+import com.example.AuthService.eventProducer.UserInfoOutbox;
+import com.example.AuthService.models.UserCredentialsRow;
 import com.example.AuthService.models.UserInfoDto;
+import com.example.AuthService.models.UserSummary;
 import com.example.AuthService.repository.UserRepository;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
@@ -30,15 +39,46 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     private final UserRepository userRepository;
     private final UserValidationService userValidationService;
     private final PasswordEncoder passwordEncoder;
-    private final UserInfoProducer userInfoProducer;
+    private final UserInfoOutbox userInfoOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final UserDetailsCache userDetailsCache;
+    private final UserCacheInvalidationProducer userCacheInvalidationProducer;
+    private final UsernameIndex usernameIndex;
+    private final AuthMetrics authMetrics;
+    private final RoleDictionary roleDictionary;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserInfo user = userRepository.findByUsername(username);
-        if(user == null){
+        CustomUserDetails userDetails = userDetailsCache.get(username, this::loadFromRepository);
+        if(userDetails == null){
             throw new UsernameNotFoundException("User not found");
         }
-        return new CustomUserDetails(user);
+        return userDetails;
+    }
+
+    private CustomUserDetails loadFromRepository(String username) {
+        List<UserCredentialsRow> rows = authMetrics.time("user.load", () -> userRepository.findCredentialsByUsername(username));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        List<Long> roleIds = new ArrayList<>(rows.size());
+        for (UserCredentialsRow row : rows) {
+            if (row.getRoleId() != null) {
+                roleIds.add(row.getRoleId());
+            }
+        }
+        RoleSet roles = roleDictionary.encode(roleIds);
+        UserCredentialsRow user = rows.get(0);
+        return new CustomUserDetails(user.getUsername(), user.getPassword(), roles, roleDictionary.authorities(roles));
+    }
+
+    /**
+     * Drops the cached user on this node and on every other replica. Call it whenever a user's
+     * credentials or roles change.
+     */
+    public void evictUser(String username) {
+        userDetailsCache.invalidate(username);
+        userCacheInvalidationProducer.sendInvalidation(username);
     }
 
     public UserInfo checkIfUserAlreadyExsist(UserInfoDto userInfoDto){
@@ -48,13 +88,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public Boolean signupUser(UserInfoDto userInfoDto){
         String validationError = userValidationService.validte(userInfoDto.email(), userInfoDto.password());
         if (validationError != null) {
+            authMetrics.count("signup", "invalid");
             throw new IllegalArgumentException(validationError);
         }
-        String encodedPassword = passwordEncoder.encode(userInfoDto.password());
-
-        if (Objects.nonNull(checkIfUserAlreadyExsist(userInfoDto))) {
+        // reject duplicates before paying for the hash; the index only sends maybe-taken names to the DB
+        if (usernameIndex.mightContain(userInfoDto.username())
+                && Objects.nonNull(authMetrics.time("signup.lookup", () -> checkIfUserAlreadyExsist(userInfoDto)))) {
+            authMetrics.count("signup", "duplicate");
             return false;
         }
+        String encodedPassword = passwordEncoder.encode(userInfoDto.password());
 
         String userId = UUID.randomUUID().toString();
         UserInfo user = UserInfo.builder()
@@ -67,14 +110,45 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .phoneNumber(userInfoDto.phoneNumber())
                 .roles(new HashSet<>())
                 .build();
-        userRepository.save(user);
-        // push event to queue
-        userInfoProducer.sendEventToKafka(userInfoEventToPublish(userInfoDto, userId));
+        UserInfoEvent event = userInfoEventToPublish(userInfoDto, userId);
+        try {
+            // the user row and its events commit together; OutboxRelay publishes them afterwards,
+            // including the username that the other replicas add to their username index
+            authMetrics.time("signup.persist", () -> transactionTemplate.executeWithoutResult(status -> {
+                userRepository.save(user);
+                userInfoOutbox.enqueue(event);
+                userInfoOutbox.enqueueUsername(user.getUsername());
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // lost a race with a concurrent signup for the same username (unique constraint)
+            log.info("Signup for existing username {} rejected by the database", user.getUsername());
+            authMetrics.count("signup", "duplicate");
+            return false;
+        }
+        // no cache eviction: a failed lookup is never cached, so no node can hold this username yet
+        usernameIndex.add(user.getUsername());
+        authMetrics.count("signup", "created");
         return true;
     }
 
-    public List<UserInfo> getAllUsers() {
-        return (List<UserInfo>) userRepository.findAll();
+    public boolean isUsernameAvailable(String username) {
+        return !usernameIndex.mightContain(username) || !userRepository.existsByUsername(username);
+    }
+
+    public List<UserSummary> getUsersPage(String after, int limit) {
+        return userRepository.findSummariesAfter(after == null ? "" : after, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Feeds every user to {@code action} from a database cursor. Projections are not managed
+     * entities, so the persistence context does not grow with the table.
+     */
+    public void forEachUser(Consumer<UserSummary> action) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<UserSummary> users = userRepository.streamAllSummaries()) {
+                users.forEach(action);
+            }
+        });
     }
 
     private UserInfoEvent userInfoEventToPublish(UserInfoDto userInfoDto, String userId) {
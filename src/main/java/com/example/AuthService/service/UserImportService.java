@@ -0,0 +1,294 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.eventProducer.UserInfoEvent;
+import com.example.AuthService.eventProducer.UserInfoOutbox;
+import com.example.AuthService.models.UserImportRecord;
+import com.example.AuthService.models.UserImportResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk user import from NDJSON. Lines are processed in chunks. Each chunk is parsed, validated and
+ * hashed in parallel, checked against existing usernames with a single IN query, and written with
+ * JDBC batches: users and their outbox events in one transaction. The outbox relay then publishes
+ * the events in its usual batches. One result per non-blank input line is handed to {@code sink}, in
+ * input order, as each chunk completes.
+ * <p>
+ * Usernames are compared case-insensitively, as the users table's collation does, so "Alice" and
+ * "alice" in one file are a duplicate rather than a unique-key failure for the whole chunk. If a
+ * batch still hits a duplicate after rechecking, the chunk falls back to one insert per user.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private final ObjectMapper objectMapper;
+    private final UserValidationService userValidationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserInfoOutbox userInfoOutbox;
+    private final UsernameIndex usernameIndex;
+    private final AuthMetrics authMetrics;
+    private final BCryptPasswordEncoder bcrypt;
+    private final ForkJoinPool hashingPool;
+    private final int chunkSize;
+
+    public UserImportService(ObjectMapper objectMapper,
+                             UserValidationService userValidationService,
+                             JdbcTemplate jdbcTemplate,
+                             NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             UserInfoOutbox userInfoOutbox,
+                             UsernameIndex usernameIndex,
+                             AuthMetrics authMetrics,
+                             @Value("${auth.password-hashing.strength:10}") int strength,
+                             @Value("${auth.import.hashing-threads:0}") int hashingThreads,
+                             @Value("${auth.import.chunk-size:1000}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.userValidationService = userValidationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userInfoOutbox = userInfoOutbox;
+        this.usernameIndex = usernameIndex;
+        this.authMetrics = authMetrics;
+        // a pool of its own, so an import never fills the interactive signup/login hashing queue
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+        this.hashingPool = new ForkJoinPool(hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.chunkSize = chunkSize;
+    }
+
+    public void importUsers(BufferedReader reader, Consumer<List<UserImportResult>> sink) throws IOException {
+        List<String> lines = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            lines.add(lineNumber + "\t" + line);
+            if (lines.size() == chunkSize) {
+                sink.accept(importChunk(lines));
+                lines.clear();
+            }
+        }
+        if (!lines.isEmpty()) {
+            sink.accept(importChunk(lines));
+        }
+        log.info("Bulk import read {} lines", lineNumber);
+    }
+
+    @PreDestroy
+    public void close() {
+        hashingPool.shutdown();
+    }
+
+    List<UserImportResult> importChunk(List<String> numberedLines) {
+        List<Candidate> candidates = authMetrics.time("import.prepare", () -> prepare(numberedLines));
+
+        // first occurrence wins inside the chunk, then one query for names that already exist
+        Set<String> seen = new HashSet<>();
+        List<Candidate> fresh = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.result == null && !seen.add(normalize(candidate.record.username()))) {
+                candidate.result = UserImportResult.duplicate(candidate.line, candidate.record.username());
+            } else if (candidate.result == null) {
+                fresh.add(candidate);
+            }
+        }
+        markExisting(fresh);
+        List<Candidate> toInsert = fresh.stream().filter(candidate -> candidate.result == null).toList();
+
+        if (!toInsert.isEmpty()) {
+            try {
+                authMetrics.time("import.insert", () -> insert(toInsert));
+            } catch (DuplicateKeyException e) {
+                // a concurrent signup took one of the names between the check and the insert
+                markExisting(toInsert);
+                List<Candidate> retry = toInsert.stream().filter(candidate -> candidate.result == null).toList();
+                try {
+                    if (!retry.isEmpty()) {
+                        authMetrics.time("import.insert", () -> insert(retry));
+                    }
+                } catch (RuntimeException retryFailure) {
+                    log.warn("Bulk import batch failed again, inserting one by one: {}", retryFailure.getMessage());
+                    insertEach(retry);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Bulk import chunk failed: {}", e.getMessage());
+                toInsert.forEach(candidate -> candidate.result = UserImportResult.failed(candidate.line, candidate.record.username(), e.getMessage()));
+            }
+        }
+
+        List<UserImportResult> results = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            if (candidate.result == null) {
+                candidate.result = UserImportResult.created(candidate.line, candidate.record.username(), candidate.userId);
+                // no cache invalidation: a user that did not exist until now cannot be cached anywhere;
+                // other replicas learn the username from the outbox
+                usernameIndex.add(candidate.record.username());
+            }
+            authMetrics.count("import", candidate.result.status());
+            results.add(candidate.result);
+        }
+        return results;
+    }
+
+    private List<Candidate> prepare(List<String> numberedLines) {
+        try {
+            return hashingPool.submit(() -> numberedLines.parallelStream().map(this::prepare).toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while preparing import chunk", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to prepare import chunk", e.getCause());
+        }
+    }
+
+    private Candidate prepare(String numberedLine) {
+        int tab = numberedLine.indexOf('\t');
+        long line = Long.parseLong(numberedLine.substring(0, tab));
+        UserImportRecord record;
+        try {
+            record = objectMapper.readValue(numberedLine.substring(tab + 1), UserImportRecord.class);
+        } catch (JsonProcessingException e) {
+            return Candidate.rejected(line, null, UserImportResult.invalid(line, null, "Malformed JSON: " + e.getOriginalMessage()));
+        }
+        String error = validate(record);
+        if (error != null) {
+            return Candidate.rejected(line, record, UserImportResult.invalid(line, record.username(), error));
+        }
+        String hash = record.passwordHash() != null ? record.passwordHash() : bcrypt.encode(record.password());
+        return new Candidate(line, record, UUID.randomUUID().toString(), hash);
+    }
+
+    private String validate(UserImportRecord record) {
+        if (record.username() == null || record.username().isBlank()) {
+            return "Username is required";
+        }
+        if (record.firstName() == null || record.lastName() == null || record.email() == null || record.phoneNumber() == null) {
+            return "firstName, lastName, email and phoneNumber are required";
+        }
+        if (record.passwordHash() != null) {
+            if (!BCRYPT_HASH.matcher(record.passwordHash()).matches()) {
+                return "passwordHash is not a BCrypt hash";
+            }
+            return record.password() == null ? userValidationService.validateEmail(record.email()) : "Set either password or passwordHash";
+        }
+        if (record.password() == null) {
+            return "Password is required";
+        }
+        return userValidationService.validte(record.email(), record.password());
+    }
+
+    private void markExisting(List<Candidate> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        List<String> usernames = candidates.stream().map(candidate -> candidate.record.username()).toList();
+        Set<String> existing = new HashSet<>();
+        namedParameterJdbcTemplate.queryForList(
+                "select username from users where username in (:usernames)", Map.of("usernames", usernames), String.class)
+                .forEach(username -> existing.add(normalize(username)));
+        for (Candidate candidate : candidates) {
+            if (existing.contains(normalize(candidate.record.username()))) {
+                candidate.result = UserImportResult.duplicate(candidate.line, candidate.record.username());
+            }
+        }
+    }
+
+    // last resort after a batch failed twice: a bad row only fails itself
+    private void insertEach(List<Candidate> candidates) {
+        for (Candidate candidate : candidates) {
+            try {
+                insert(List.of(candidate));
+            } catch (DuplicateKeyException e) {
+                candidate.result = UserImportResult.duplicate(candidate.line, candidate.record.username());
+            } catch (RuntimeException e) {
+                candidate.result = UserImportResult.failed(candidate.line, candidate.record.username(), e.getMessage());
+            }
+        }
+    }
+
+    // matches the case-insensitive collation of users.username
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private void insert(List<Candidate> candidates) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("insert into users (user_id, username, password, first_name, last_name, email, phone_number) "
+                            + "values (?, ?, ?, ?, ?, ?, ?)",
+                    candidates, candidates.size(), (statement, candidate) -> {
+                        statement.setString(1, candidate.userId);
+                        statement.setString(2, candidate.record.username());
+                        statement.setString(3, candidate.passwordHash);
+                        statement.setString(4, candidate.record.firstName());
+                        statement.setString(5, candidate.record.lastName());
+                        statement.setString(6, candidate.record.email());
+                        statement.setLong(7, candidate.record.phoneNumber());
+                    });
+            userInfoOutbox.enqueueAll(candidates.stream().map(UserImportService::toEvent).toList());
+            // the other replicas add these to their username index when the relay publishes them
+            userInfoOutbox.enqueueUsernames(candidates.stream().map(candidate -> candidate.record.username()).toList());
+        });
+    }
+
+    private static UserInfoEvent toEvent(Candidate candidate) {
+        return UserInfoEvent.builder()
+                .userId(candidate.userId)
+                .firstName(candidate.record.firstName())
+                .lastName(candidate.record.lastName())
+                .email(candidate.record.email())
+                .phoneNumber(candidate.record.phoneNumber())
+                .build();
+    }
+
+    private static final class Candidate {
+        private final long line;
+        private final UserImportRecord record;
+        private final String userId;
+        private final String passwordHash;
+        private UserImportResult result;
+
+        private Candidate(long line, UserImportRecord record, String userId, String passwordHash) {
+            this.line = line;
+            this.record = record;
+            this.userId = userId;
+            this.passwordHash = passwordHash;
+        }
+
+        private static Candidate rejected(long line, UserImportRecord record, UserImportResult result) {
+            Candidate candidate = new Candidate(line, record, null, null);
+            candidate.result = result;
+            return candidate;
+        }
+    }
+}
@@ -17,12 +17,17 @@ public class UserValidationService {
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}$");
 
    public String validte(String email, String password) {
-       if (!EMAIL_PATTERN.matcher(email).matches()) {
-           return "Invalid email format";
+       String emailError = validateEmail(email);
+       if (emailError != null) {
+           return emailError;
        }
        if (password.length() < 8) {
            return "Password must be at least 8 characters long";
        }
        return null;
    }
+
+   public String validateEmail(String email) {
+       return EMAIL_PATTERN.matcher(email).matches() ? null : "Invalid email format";
+   }
 }
@@ -0,0 +1,120 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over all usernames. {@link #mightContain} answers "definitely free" (false) or
+ * "maybe taken" (true) without touching the database. Until the filter has been warmed from the
+ * users table every username is reported as maybe taken, so callers fall back to the database.
+ * Usernames are hashed lower-cased because the username column compares case-insensitively.
+ */
+@Component
+@Slf4j
+public class UsernameIndex {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+    private final AtomicLong size = new AtomicLong();
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean ready;
+
+    public UsernameIndex(@Value("${auth.username-index.expected-insertions:1000000}") long expectedInsertions,
+                         @Value("${auth.username-index.false-positive-rate:0.01}") double falsePositiveRate,
+                         UserRepository userRepository,
+                         PlatformTransactionManager transactionManager) {
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.numBits = words * 64L;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmInBackground() {
+        Thread warmer = new Thread(this::warm, "username-index-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    public void warm() {
+        long started = System.currentTimeMillis();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+                    usernames.forEach(this::add);
+                }
+            });
+            ready = true;
+            log.info("Username index warmed with {} usernames in {} ms", size.get(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Failed to warm the username index, signups keep checking the database", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void add(String username) {
+        long hash1 = hash(username.toLowerCase(Locale.ROOT));
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, numBits);
+            long mask = 1L << (bit & 63);
+            bits.accumulateAndGet((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+        size.incrementAndGet();
+    }
+
+    public boolean mightContain(String username) {
+        if (!ready) {
+            return true;
+        }
+        long hash1 = hash(username.toLowerCase(Locale.ROOT));
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, numBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a over the UTF-16 code units, finished with the murmur3 mixer
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
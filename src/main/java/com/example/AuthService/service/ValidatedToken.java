@@ -0,0 +1,21 @@
+package com.example.AuthService.service;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Result of parsing and verifying an access token once. {@code authorities} is null when the token
+ * carries no authorities claim, which is different from a token minted for a user without roles.
+ */
+public record ValidatedToken(String subject, Instant expiresAt, List<String> authorities, String jti) {
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(Instant.now());
+    }
+
+    public boolean isValidFor(UserDetails userDetails) {
+        return subject != null && subject.equals(userDetails.getUsername()) && !isExpired();
+    }
+}
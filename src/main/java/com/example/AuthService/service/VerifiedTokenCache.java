@@ -0,0 +1,119 @@
+package com.example.AuthService.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Size-bounded cache of access tokens that already passed signature verification, keyed by the
+ * SHA-256 digest of the token string. Entries expire at the token's own {@code exp} and are ignored
+ * once the signing key ring has been rotated.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final MessageDigest SHA_256 = sha256();
+
+    private final Cache<TokenDigest, Entry> cache;
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.maximum-size:100000}") long maximumSize,
+                              MeterRegistry meterRegistry) {
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    private VerifiedTokenCache() {
+        this.cache = null;
+    }
+
+    public static VerifiedTokenCache disabled() {
+        return new VerifiedTokenCache();
+    }
+
+    public ValidatedToken get(String token, long keyGeneration, Function<String, ValidatedToken> verifier) {
+        if (cache == null) {
+            return verifier.apply(token);
+        }
+        TokenDigest digest = TokenDigest.of(token);
+        Entry entry = cache.getIfPresent(digest);
+        if (entry != null && entry.keyGeneration() == keyGeneration && !entry.token().isExpired()) {
+            return entry.token();
+        }
+        ValidatedToken validated = verifier.apply(token);
+        cache.put(digest, new Entry(validated, keyGeneration));
+        return validated;
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    record TokenDigest(long a, long b, long c, long d) {
+
+        static TokenDigest of(String token) {
+            MessageDigest digest;
+            try {
+                digest = (MessageDigest) SHA_256.clone();
+            } catch (CloneNotSupportedException e) {
+                digest = sha256();
+            }
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+
+    private record Entry(ValidatedToken token, long keyGeneration) {
+    }
+
+    private static class ExpireAtTokenExpiry implements Expiry<TokenDigest, Entry> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, Entry value, long currentTime) {
+            long remainingMillis = value.token().expiresAt().toEpochMilli() - Instant.now().toEpochMilli();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, Entry value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, Entry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.AuthService.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testUsernameBucketRejectsAfterCapacity() {
+        // Arrange
+        LoginRateLimiter limiter = new LoginRateLimiter(true, 100, 100, 3, 3, 100, 100, 1000, 4, meterRegistry);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("testuser", "10.0.0." + i).isZero());
+        }
+        Duration retryAfter = limiter.tryAcquire("testuser", "10.0.0.9");
+
+        // Assert
+        assertFalse(retryAfter.isZero());
+        assertTrue(retryAfter.compareTo(Duration.ofSeconds(20)) <= 0);
+        assertTrue(limiter.tryAcquire("otheruser", "10.0.0.9").isZero());
+        assertEquals(1.0, meterRegistry.get("auth.login.rate-limited").tag("key", "username").counter().count());
+
+        System.out.println("[DEBUG_LOG] Retry after: " + retryAfter);
+    }
+
+    @Test
+    void testCaseVariantsShareOneUsernameBucket() {
+        // Arrange
+        LoginRateLimiter limiter = new LoginRateLimiter(true, 100, 100, 3, 3, 100, 100, 1000, 4, meterRegistry);
+
+        // Act
+        assertTrue(limiter.tryAcquire("testuser", "10.0.0.1").isZero());
+        assertTrue(limiter.tryAcquire("TestUser", "10.0.0.2").isZero());
+        assertTrue(limiter.tryAcquire("TESTUSER", "10.0.0.3").isZero());
+        Duration retryAfter = limiter.tryAcquire("tEsTuSeR", "10.0.0.4");
+        limiter.refund("TESTUSER", "10.0.0.3");
+
+        // Assert
+        assertFalse(retryAfter.isZero());
+        assertTrue(limiter.tryAcquire("testuser", "10.0.0.5").isZero());
+        assertFalse(limiter.tryAcquire("Testuser", "10.0.0.6").isZero());
+
+        System.out.println("[DEBUG_LOG] Case variants share a bucket, retry after: " + retryAfter);
+    }
+
+    @Test
+    void testOtherIpCannotLockOutUsername() {
+        // Arrange
+        LoginRateLimiter limiter = new LoginRateLimiter(true, 3, 3, 50, 50, 100, 100, 1000, 4, meterRegistry);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("testuser", "10.0.0.66");
+        }
+
+        // Act
+        Duration attacker = limiter.tryAcquire("testuser", "10.0.0.66");
+        Duration owner = limiter.tryAcquire("testuser", "10.0.0.1");
+
+        // Assert
+        assertFalse(attacker.isZero());
+        assertTrue(owner.isZero());
+        assertEquals(1.0, meterRegistry.get("auth.login.rate-limited").tag("key", "username_ip").counter().count());
+
+        System.out.println("[DEBUG_LOG] Attacker retry after: " + attacker);
+    }
+
+    @Test
+    void testSuccessfulLoginsAreRefunded() {
+        // Arrange
+        LoginRateLimiter limiter = new LoginRateLimiter(true, 2, 2, 2, 2, 100, 100, 1000, 4, meterRegistry);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("testuser", "10.0.0.1").isZero());
+            limiter.refund("testuser", "10.0.0.1");
+        }
+        limiter.tryAcquire("testuser", "10.0.0.1");
+        limiter.tryAcquire("testuser", "10.0.0.1");
+
+        // Assert
+        assertFalse(limiter.tryAcquire("testuser", "10.0.0.1").isZero());
+    }
+
+    @Test
+    void testIpBucketRejectsAcrossUsernames() {
+        // Arrange
+        LoginRateLimiter limiter = new LoginRateLimiter(true, 100, 100, 100, 100, 2, 2, 1000, 4, meterRegistry);
+
+        // Act
+        limiter.tryAcquire("user1", "10.0.0.1");
+        limiter.tryAcquire("user2", "10.0.0.1");
+        Duration retryAfter = limiter.tryAcquire("user3", "10.0.0.1");
+
+        // Assert
+        assertFalse(retryAfter.isZero());
+        assertEquals(1.0, meterRegistry.get("auth.login.rate-limited").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    void testKeysAreBoundedAndIdleBucketsEvicted() {
+        // Arrange
+        LoginRateLimiter limiter = new LoginRateLimiter(true, 1, 60_000, 1, 60_000, 1000, 6_000_000, 8, 2, meterRegistry);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("user" + i, "10.0.0.1");
+        }
+        double tracked = meterRegistry.get("auth.login.rate-limit.keys").gauge().value();
+        sleep(10);
+        limiter.evictIdle();
+
+        // Assert
+        assertTrue(tracked <= 17, "username and username-IP buckets are capped per stripe, plus one IP bucket");
+        assertEquals(0.0, meterRegistry.get("auth.login.rate-limit.keys").gauge().value());
+    }
+
+    @Test
+    void testDisabledLimiterAllowsEverything() {
+        // Arrange
+        LoginRateLimiter limiter = new LoginRateLimiter(false, 1, 1, 1, 1, 1, 1, 10, 1, meterRegistry);
+
+        // Act & Assert
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("testuser", "10.0.0.1").isZero());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.AuthService.auth;
+
+import com.example.AuthService.entities.UserRoles;
+import com.example.AuthService.repository.UserRolesRepository;
+import com.example.AuthService.service.CustomUserDetails;
+import com.example.AuthService.service.RoleDictionary;
+import com.example.AuthService.service.RoleSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class RoleChecksTest {
+
+    private RoleDictionary roleDictionary;
+    private RoleChecks roleChecks;
+
+    @BeforeEach
+    void setUp() {
+        UserRolesRepository userRolesRepository = mock(UserRolesRepository.class);
+        when(userRolesRepository.findAllByOrderByRoleIdAsc()).thenReturn(List.of(new UserRoles(1L, "user"), new UserRoles(2L, "admin")));
+        roleDictionary = new RoleDictionary(userRolesRepository);
+        roleChecks = new RoleChecks(roleDictionary);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testHasUsesRoleBitsOfLoadedPrincipal() {
+        // Arrange
+        RoleSet roles = roleDictionary.encode(List.of(2L));
+        authenticate(new CustomUserDetails("alice", "", roles, roleDictionary.authorities(roles)));
+
+        // Act & Assert
+        assertTrue(roleChecks.has("admin"));
+        assertFalse(roleChecks.has("USER"));
+        assertFalse(roleChecks.has("unknown"));
+        assertTrue(roleChecks.hasAny("USER", "ADMIN"));
+
+        System.out.println("[DEBUG_LOG] Role checks passed for " + roles);
+    }
+
+    @Test
+    void testHasFallsBackToAuthoritiesForTokenPrincipal() {
+        // Arrange
+        authenticate(CustomUserDetails.fromToken("bob", List.of("USER")));
+
+        // Act & Assert
+        assertTrue(roleChecks.has("user"));
+        assertFalse(roleChecks.has("ADMIN"));
+    }
+
+    @Test
+    void testHasUsesRoleBitsOfTokenPrincipal() {
+        // Arrange
+        authenticate(CustomUserDetails.fromToken("carol", List.of("ADMIN"), roleDictionary.encodeNames(List.of("ADMIN"))));
+
+        // Act & Assert
+        assertTrue(roleChecks.has("admin"));
+        assertFalse(roleChecks.has("USER"));
+    }
+
+    @Test
+    void testRequireDecidesUrlRules() {
+        // Arrange
+        RoleSet roles = roleDictionary.encode(List.of(2L));
+        CustomUserDetails admin = new CustomUserDetails("alice", "", roles, roleDictionary.authorities(roles));
+        Authentication adminAuthentication = new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities());
+        Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+        RequestAuthorizationContext context = new RequestAuthorizationContext(new MockHttpServletRequest());
+
+        // Act & Assert
+        assertTrue(roleChecks.require("ADMIN").check(() -> adminAuthentication, context).isGranted());
+        assertFalse(roleChecks.require("USER").check(() -> adminAuthentication, context).isGranted());
+        assertFalse(roleChecks.require("ADMIN").check(() -> anonymous, context).isGranted());
+    }
+
+    @Test
+    void testHasIsFalseWithoutAuthentication() {
+        // Act & Assert
+        assertFalse(roleChecks.has("USER"));
+    }
+
+    private static void authenticate(CustomUserDetails principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
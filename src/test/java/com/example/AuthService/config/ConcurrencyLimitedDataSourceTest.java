@@ -0,0 +1,64 @@
+package com.example.AuthService.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConcurrencyLimitedDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ConcurrencyLimitedDataSource(targetDataSource, 2, 50);
+    }
+
+    @Test
+    void testPermitHeldUntilConnectionClosed() throws Exception {
+        // Arrange
+        when(targetDataSource.getConnection()).thenReturn(connection);
+
+        // Act
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        // Assert
+        assertEquals(2, dataSource.getInUse());
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        first.close();
+        first.close();
+        assertEquals(1, dataSource.getInUse());
+        verify(connection, times(2)).close();
+        second.close();
+        assertEquals(0, dataSource.getInUse());
+
+        System.out.println("[DEBUG_LOG] Permits in use after close: " + dataSource.getInUse());
+    }
+
+    @Test
+    void testPermitReleasedWhenPoolFails() throws Exception {
+        // Arrange
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        // Act & Assert
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals(0, dataSource.getInUse());
+    }
+}
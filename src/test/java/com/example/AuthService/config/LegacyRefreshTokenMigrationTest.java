@@ -0,0 +1,82 @@
+package com.example.AuthService.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegacyRefreshTokenMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void testRenamesTableWithPlaintextTokens() throws Exception {
+        // Arrange
+        jdbcTemplate.execute("create table users (user_id varchar(36) primary key)");
+        jdbcTemplate.execute("create table refresh_tokens (id varchar(36) primary key, token varchar(255), expiry_date timestamp, "
+                + "constraint fk_refresh_tokens_user foreign key (id) references users (user_id))");
+        jdbcTemplate.update("insert into users (user_id) values ('user-1')");
+        jdbcTemplate.update("insert into refresh_tokens (id, token) values ('user-1', 'plaintext')");
+
+        // Act
+        new LegacyRefreshTokenMigration(dataSource).afterPropertiesSet();
+
+        // Assert
+        assertEquals(0, tableCount("REFRESH_TOKENS"));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from refresh_tokens_legacy", Integer.class));
+        // the constraint name is free again for the table Hibernate recreates
+        jdbcTemplate.execute("create table refresh_tokens (id varchar(36) primary key, "
+                + "constraint fk_refresh_tokens_user foreign key (id) references users (user_id))");
+        System.out.println("[DEBUG_LOG] Legacy refresh_tokens table renamed");
+    }
+
+    @Test
+    void testRepeatedRunKeepsNewTable() throws Exception {
+        // Arrange
+        jdbcTemplate.execute("create table refresh_tokens (id int primary key, token varchar(255))");
+        jdbcTemplate.update("insert into refresh_tokens (id, token) values (1, 'plaintext')");
+        new LegacyRefreshTokenMigration(dataSource).afterPropertiesSet();
+        // the new table, after an older release added its token column back during a rollback
+        jdbcTemplate.execute("create table refresh_tokens (id int primary key, token_hash binary(32) not null unique, token varchar(255))");
+        jdbcTemplate.update("insert into refresh_tokens (id, token_hash) values (1, ?)", (Object) new byte[32]);
+
+        // Act
+        new LegacyRefreshTokenMigration(dataSource).afterPropertiesSet();
+
+        // Assert
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from refresh_tokens", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from refresh_tokens_legacy where token = 'plaintext'", Integer.class));
+        System.out.println("[DEBUG_LOG] Second run left the hashed refresh_tokens table in place");
+    }
+
+    @Test
+    void testKeepsHashedTable() throws Exception {
+        // Arrange
+        jdbcTemplate.execute("create table refresh_tokens (id int primary key, token_hash binary(32) not null unique)");
+        jdbcTemplate.update("insert into refresh_tokens (id, token_hash) values (1, ?)", (Object) new byte[32]);
+
+        // Act
+        new LegacyRefreshTokenMigration(dataSource).afterPropertiesSet();
+        new LegacyRefreshTokenMigration(new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID())).afterPropertiesSet();
+
+        // Assert
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from refresh_tokens", Integer.class));
+        assertEquals(0, tableCount("REFRESH_TOKENS_LEGACY"));
+    }
+
+    private int tableCount(String upperCaseName) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables where upper(table_name) = ?", Integer.class, upperCaseName);
+    }
+}
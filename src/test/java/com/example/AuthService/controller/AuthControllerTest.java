@@ -1,8 +1,8 @@
 package com.example.AuthService.controller;
 
 import com.example.AuthService.entities.RefreshToken;
-import com.example.AuthService.entities.UserInfo;
 import com.example.AuthService.models.UserInfoDto;
+import com.example.AuthService.models.UserSummary;
 import com.example.AuthService.service.JwtService;
 import com.example.AuthService.service.RefreshTokenService;
 import com.example.AuthService.service.UserDetailsServiceImpl;
@@ -16,24 +16,33 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -84,7 +93,7 @@ public class AuthControllerTest {
 
         when(userDetailsService.signupUser(any(UserInfoDto.class))).thenReturn(true);
         when(refreshTokenService.createRefreshToken(anyString())).thenReturn(refreshToken);
-        when(jwtService.GenerateToken(anyString())).thenReturn(jwtToken);
+        when(jwtService.GenerateToken(anyString(), anyCollection())).thenReturn(jwtToken);
 
         // Act & Assert
         mockMvc.perform(post("/auth/v1/signup")
@@ -143,45 +152,91 @@ public class AuthControllerTest {
     @Test
     public void testGetAllUsers() throws Exception {
         // Arrange
-        UserInfo user1 = UserInfo.builder()
-            .userId(UUID.randomUUID().toString())
-            .username("user1")
-            .firstName("User")
-            .lastName("One")
-            .email("user1@example.com")
-            .phoneNumber(1234567890L)
-            .roles(new HashSet<>())
-            .build();
-
-        UserInfo user2 = UserInfo.builder()
-            .userId(UUID.randomUUID().toString())
-            .username("user2")
-            .firstName("User")
-            .lastName("Two")
-            .email("user2@example.com")
-            .phoneNumber(9876543210L)
-            .roles(new HashSet<>())
-            .build();
-
-        List<UserInfo> users = Arrays.asList(user1, user2);
+        UserSummary user1 = new UserSummary("id-1", "user1", "User", "One", "user1@example.com", 1234567890L);
+        UserSummary user2 = new UserSummary("id-2", "user2", "User", "Two", "user2@example.com", 9876543210L);
 
-        when(userDetailsService.getAllUsers()).thenReturn(users);
+        when(userDetailsService.getUsersPage(null, 100)).thenReturn(Arrays.asList(user1, user2));
 
         // Act & Assert
         mockMvc.perform(get("/auth/v1/users"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$", hasSize(2)))
             .andExpect(jsonPath("$[0].username", is("user1")))
-            .andExpect(jsonPath("$[1].username", is("user2")));
+            .andExpect(jsonPath("$[1].username", is("user2")))
+            .andExpect(jsonPath("$[0].password").doesNotExist())
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    public void testGetUsersPageReturnsNextCursor() throws Exception {
+        // Arrange
+        UserSummary user1 = new UserSummary("id-1", "user1", "User", "One", "user1@example.com", 1234567890L);
+        UserSummary user2 = new UserSummary("id-2", "user2", "User", "Two", "user2@example.com", 9876543210L);
+
+        when(userDetailsService.getUsersPage("id-0", 2)).thenReturn(Arrays.asList(user1, user2));
+
+        // Act & Assert
+        mockMvc.perform(get("/auth/v1/users").param("after", "id-0").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(header().string("X-Next-Cursor", "id-2"));
+    }
+
+    @Test
+    public void testStreamUsers() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<UserSummary> action = invocation.getArgument(0);
+            action.accept(new UserSummary("id-1", "user1", "User", "One", "user1@example.com", 1234567890L));
+            action.accept(new UserSummary("id-2", "user2", "User", "Two", "user2@example.com", 9876543210L));
+            return null;
+        }).when(userDetailsService).forEachUser(any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/auth/v1/users/stream"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[1].userId", is("id-2")));
     }
 
     @Test
     public void testGetAllUsersError() throws Exception {
         // Arrange
-        when(userDetailsService.getAllUsers()).thenThrow(new RuntimeException("Database error"));
+        when(userDetailsService.getUsersPage(null, 100)).thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
         mockMvc.perform(get("/auth/v1/users"))
             .andExpect(status().isInternalServerError());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testListingUsersRequiresAdmin() throws Exception {
+        // Arrange
+        MockMvc secured = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+
+        // Act & Assert
+        secured.perform(get("/auth/v1/users"))
+            .andExpect(status().isUnauthorized());
+        secured.perform(get("/auth/v1/users/stream"))
+            .andExpect(status().isUnauthorized());
+        secured.perform(get("/auth/v1/users").with(user("testuser").authorities(new SimpleGrantedAuthority("USER"))))
+            .andExpect(status().isForbidden());
+        secured.perform(get("/auth/v1/users/stream").with(user("testuser").authorities(new SimpleGrantedAuthority("USER"))))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void testPrometheusNeedsLoginOffTheManagementPort() throws Exception {
+        // Arrange
+        MockMvc secured = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+
+        // Act & Assert
+        secured.perform(get("/actuator/prometheus"))
+            .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.AuthService.controller;
+
+import com.example.AuthService.auth.PasswordHashingOverloadedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TokenControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AuthenticationManager authenticationManager;
+
+    @Test
+    public void testLoginUnderHashingOverloadReturns503WithRetryAfter() throws Exception {
+        // Arrange
+        when(authenticationManager.authenticate(any()))
+                .thenThrow(new PasswordHashingOverloadedException("Password hashing is overloaded, retry later"));
+
+        // Act & Assert
+        mockMvc.perform(post("/auth/v1/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"testuser\",\"password\":\"Password123!\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        System.out.println("[DEBUG_LOG] Login under overload answered with 503 and Retry-After");
+    }
+
+    @Test
+    public void testIntrospectionRequiresIntrospectAuthority() throws Exception {
+        // Arrange
+        String body = "{\"tokens\":[\"not-a-jwt\"]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/auth/v1/introspect").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/auth/v1/introspect").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .with(user("testuser").authorities(new SimpleGrantedAuthority("USER"))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/auth/v1/introspect").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .with(user("gateway").authorities(new SimpleGrantedAuthority("INTROSPECT"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].active").value(false));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.AuthService.eventProducer;
+
+import com.example.AuthService.entities.OutboxEvent;
+import com.example.AuthService.eventConsumer.UserCacheInvalidationConsumer;
+import com.example.AuthService.repository.OutboxEventRepository;
+import com.example.AuthService.repository.UserRepository;
+import com.example.AuthService.service.UserDetailsCache;
+import com.example.AuthService.service.UsernameIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private UserInfoProducer userInfoProducer;
+
+    @Mock
+    private StringKafkaPublisher stringKafkaPublisher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        outboxRelay = new OutboxRelay(outboxEventRepository, userInfoProducer, stringKafkaPublisher,
+                "auth_user_cache_invalidation", objectMapper, transactionTemplate, 2, 1000);
+    }
+
+    @Test
+    void testDrainSendsKeyedEventsAndDeletesBatch() throws Exception {
+        // Arrange
+        OutboxEvent first = outboxEvent(1L, "user-1");
+        OutboxEvent second = outboxEvent(2L, "user-2");
+        when(outboxEventRepository.lockNextBatch(any(Pageable.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of());
+        when(userInfoProducer.sendEventToKafka(anyString(), anyString(), any(UserInfoEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        outboxRelay.drain();
+
+        // Assert
+        ArgumentCaptor<UserInfoEvent> events = ArgumentCaptor.forClass(UserInfoEvent.class);
+        verify(userInfoProducer).sendEventToKafka(eq("user_service"), eq("user-1"), events.capture());
+        verify(userInfoProducer).sendEventToKafka(eq("user_service"), eq("user-2"), any(UserInfoEvent.class));
+        assertEquals("Test", events.getValue().firstName());
+        verify(outboxEventRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(outboxEventRepository, times(2)).lockNextBatch(any(Pageable.class));
+    }
+
+    @Test
+    void testFailedSendKeepsEvents() throws Exception {
+        // Arrange
+        when(outboxEventRepository.lockNextBatch(any(Pageable.class))).thenReturn(List.of(outboxEvent(1L, "user-1")));
+        when(userInfoProducer.sendEventToKafka(anyString(), anyString(), any(UserInfoEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // Act
+        outboxRelay.drain();
+
+        // Assert
+        verify(outboxEventRepository, never()).deleteByIdIn(anyList());
+    }
+
+    @Test
+    void testNewUsernameReachesTheOtherReplicasIndex() {
+        // Arrange: the other replica warmed its index before the user signed up on this one
+        UserRepository otherReplicaUsers = mock(UserRepository.class);
+        when(otherReplicaUsers.streamAllUsernames()).thenReturn(Stream.empty());
+        UsernameIndex otherReplicaIndex = new UsernameIndex(1000, 0.01, otherReplicaUsers, mock(PlatformTransactionManager.class));
+        otherReplicaIndex.warm();
+        UserCacheInvalidationConsumer otherReplica = new UserCacheInvalidationConsumer(
+                new UserDetailsCache(true, 100, 300, new SimpleMeterRegistry()), otherReplicaIndex);
+        OutboxEvent usernameRecord = OutboxEvent.builder()
+                .id(1L)
+                .aggregateId("newuser")
+                .topic("auth_user_cache_invalidation")
+                .payload("newuser")
+                .createdAt(Instant.now())
+                .build();
+        when(outboxEventRepository.lockNextBatch(any(Pageable.class))).thenReturn(List.of(usernameRecord));
+        when(stringKafkaPublisher.send(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            otherReplica.onInvalidation(invocation.getArgument(2));
+            return CompletableFuture.completedFuture(null);
+        });
+        assertFalse(otherReplicaIndex.mightContain("newuser"));
+
+        // Act
+        outboxRelay.drain();
+
+        // Assert
+        assertTrue(otherReplicaIndex.mightContain("newuser"));
+        verify(userInfoProducer, never()).sendEventToKafka(anyString(), anyString(), any(UserInfoEvent.class));
+        verify(outboxEventRepository).deleteByIdIn(List.of(1L));
+        System.out.println("[DEBUG_LOG] Other replica learned about newuser through the outbox");
+    }
+
+    private OutboxEvent outboxEvent(Long id, String userId) throws Exception {
+        UserInfoEvent event = UserInfoEvent.builder()
+                .userId(userId)
+                .firstName("Test")
+                .lastName("User")
+                .email("test@example.com")
+                .phoneNumber(1234567890L)
+                .build();
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateId(userId)
+                .topic("user_service")
+                .payload(objectMapper.writeValueAsString(event))
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.AuthService.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Open-model load test: requests are issued on a fixed schedule no matter how slowly earlier ones
+ * complete, and latency is measured from the time a request was due to be sent, so a stalled
+ * server shows up in the tail instead of quietly lowering the offered load (coordinated omission).
+ * <p>
+ * Excluded from {@code test}; run it with
+ * {@code ./gradlew loadTest -Dload.rate=500 -Dload.duration-seconds=60 -Dload.mix=signup=1,login=2,refresh=2,protected=15}.
+ * Every request is timed, failed ones included, and latency is reported separately per outcome so a
+ * burst of fast rejections cannot make the successful tail look better than it is. Histograms are
+ * written to {@code build/reports/load/<flow>-ok.hgrm} and {@code <flow>-error.hgrm}. The protected
+ * flow calls a probe endpoint that only this test registers.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.login-rate-limit.enabled=false",
+        "auth.password-hashing.strength=${load.bcrypt-strength:10}",
+        "auth.password-hashing.queue-capacity=${load.hashing-queue-capacity:1024}",
+        "logging.level.org.springframework.security=WARN"
+})
+@EmbeddedKafka(partitions = 1, topics = {"user_service", "auth_user_cache_invalidation", "auth_token_revocation"})
+public class AuthLoadTest {
+
+    private static final String PASSWORD = "Password123!";
+    private static final String PROTECTED_PATH = "/load/protected";
+
+    enum Flow { SIGNUP, LOGIN, REFRESH, PROTECTED }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ConcurrentLinkedQueue<String> refreshTokens = new ConcurrentLinkedQueue<>();
+    private final AtomicLong signupSequence = new AtomicLong();
+    private final List<String> seededUsers = new ArrayList<>();
+    private String accessToken;
+
+    @Test
+    void offeredLoad() throws Exception {
+        int rate = Integer.getInteger("load.rate", 200);
+        int durationSeconds = Integer.getInteger("load.duration-seconds", 30);
+        int warmupSeconds = Integer.getInteger("load.warmup-seconds", 10);
+        Map<Flow, Integer> mix = parseMix(System.getProperty("load.mix", "signup=1,login=2,refresh=2,protected=15"));
+        seed(Integer.getInteger("load.seed-users", 50));
+
+        System.out.println("[DEBUG_LOG] Warming up for " + warmupSeconds + "s");
+        run(rate, warmupSeconds, mix, new Results());
+        Results results = new Results();
+        System.out.println("[DEBUG_LOG] Offering " + rate + " req/s for " + durationSeconds + "s, mix " + mix);
+        run(rate, durationSeconds, mix, results);
+
+        results.report(durationSeconds, Path.of("build", "reports", "load"));
+        assertTrue(results.completed() > 0, "no request completed");
+    }
+
+    private void run(int rate, int seconds, Map<Flow, Integer> mix, Results results) {
+        Flow[] schedule = weightedSchedule(mix);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = (long) rate * seconds;
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (long i = 0; i < total; i++) {
+                long intendedStart = start + i * intervalNanos;
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Flow flow = schedule[(int) (i % schedule.length)];
+                workers.execute(() -> results.record(flow, intendedStart, execute(flow)));
+            }
+            // close() waits for the stragglers
+        }
+    }
+
+    private boolean execute(Flow flow) {
+        try {
+            return switch (flow) {
+                case SIGNUP -> post("/auth/v1/signup", signupBody("load-" + signupSequence.incrementAndGet())).statusCode() == 200;
+                case LOGIN -> post("/auth/v1/login", Map.of("username", randomSeededUser(), "password", PASSWORD)).statusCode() == 200;
+                case REFRESH -> refresh();
+                case PROTECTED -> send(HttpRequest.newBuilder(uri(PROTECTED_PATH))
+                        .header("Authorization", "Bearer " + accessToken).GET()).statusCode() == 200;
+            };
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean refresh() throws IOException, InterruptedException {
+        // each refresh rotates the token, so tokens are checked out of a shared pool and returned rotated
+        String token = refreshTokens.poll();
+        if (token == null) {
+            return false;
+        }
+        HttpResponse<String> response = post("/auth/v1/refreshToken", Map.of("token", token));
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        refreshTokens.add(objectMapper.readTree(response.body()).get("token").asText());
+        return true;
+    }
+
+    private void seed(int users) throws Exception {
+        for (int i = 0; i < users; i++) {
+            String username = "seed-" + i;
+            HttpResponse<String> response = post("/auth/v1/signup", signupBody(username));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed: " + response.statusCode() + " " + response.body());
+            }
+            JsonNode tokens = objectMapper.readTree(response.body());
+            seededUsers.add(username);
+            refreshTokens.add(tokens.get("token").asText());
+            accessToken = tokens.get("accessToken").asText();
+        }
+    }
+
+    private Map<String, Object> signupBody(String username) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("username", username);
+        body.put("password", PASSWORD);
+        body.put("firstName", "Load");
+        body.put("lastName", "Test");
+        body.put("email", username + "@example.com");
+        body.put("phoneNumber", 1234567890L);
+        return body;
+    }
+
+    private String randomSeededUser() {
+        return seededUsers.get(ThreadLocalRandom.current().nextInt(seededUsers.size()));
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static Map<Flow, Integer> parseMix(String mix) {
+        Map<Flow, Integer> weights = new EnumMap<>(Flow.class);
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            weights.put(Flow.valueOf(entry[0].trim().toUpperCase()), Integer.parseInt(entry[1].trim()));
+        }
+        return weights;
+    }
+
+    // interleaves flows by weight so every window of the run sees the configured mix
+    private static Flow[] weightedSchedule(Map<Flow, Integer> mix) {
+        List<Flow> schedule = new ArrayList<>();
+        Map<Flow, Integer> remaining = new EnumMap<>(mix);
+        while (remaining.values().stream().anyMatch(weight -> weight > 0)) {
+            remaining.replaceAll((flow, weight) -> {
+                if (weight > 0) {
+                    schedule.add(flow);
+                }
+                return weight - 1;
+            });
+        }
+        return schedule.toArray(Flow[]::new);
+    }
+
+    // a protected endpoint for the load test only, so production does not carry a probe route
+    @TestConfiguration
+    static class ProtectedProbeConfig {
+        @Bean
+        RouterFunction<ServerResponse> protectedProbe() {
+            return RouterFunctions.route()
+                    .GET(PROTECTED_PATH, request -> ServerResponse.ok()
+                            .body(request.principal().map(Principal::getName).orElse("")))
+                    .build();
+        }
+    }
+
+    private static final class Results {
+        private final Map<Flow, Histogram> okMicros = new EnumMap<>(Flow.class);
+        private final Map<Flow, Histogram> errorMicros = new EnumMap<>(Flow.class);
+
+        private Results() {
+            for (Flow flow : Flow.values()) {
+                okMicros.put(flow, new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3));
+                errorMicros.put(flow, new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3));
+            }
+        }
+
+        private void record(Flow flow, long intendedStart, boolean success) {
+            long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+            (success ? okMicros : errorMicros).get(flow).recordValue(Math.min(latency, TimeUnit.MINUTES.toMicros(1)));
+        }
+
+        private long completed() {
+            return okMicros.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        }
+
+        private void report(int durationSeconds, Path directory) throws IOException {
+            Files.createDirectories(directory);
+            System.out.printf("[DEBUG_LOG] %-10s %-7s %9s %9s %9s %9s %9s %9s%n",
+                    "flow", "outcome", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            for (Flow flow : Flow.values()) {
+                report(flow, "ok", okMicros.get(flow), durationSeconds, directory);
+                report(flow, "error", errorMicros.get(flow), durationSeconds, directory);
+            }
+        }
+
+        private static void report(Flow flow, String outcome, Histogram histogram, int durationSeconds, Path directory)
+                throws IOException {
+            String name = flow.name().toLowerCase();
+            System.out.printf("[DEBUG_LOG] %-10s %-7s %9d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    name, outcome, histogram.getTotalCount(), histogram.getTotalCount() / (double) durationSeconds,
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + "-" + outcome + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.AuthService.serializer;
+
+import com.example.AuthService.eventProducer.UserInfoEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserInfoSerializerTest {
+
+    private UserInfoSerializer jsonSerializer;
+    private UserInfoSerializer binarySerializer;
+    private UserInfoDeserializer deserializer;
+    private UserInfoEvent event;
+
+    @BeforeEach
+    void setUp() {
+        jsonSerializer = new UserInfoSerializer();
+        jsonSerializer.configure(Map.of(), false);
+        binarySerializer = new UserInfoSerializer();
+        binarySerializer.configure(Map.of(UserInfoSerializer.FORMAT_CONFIG, "binary"), false);
+        deserializer = new UserInfoDeserializer();
+        event = UserInfoEvent.builder()
+                .userId("5f0c2a5e-8d1b-4c7e-9a33-0a1b2c3d4e5f")
+                .firstName("Zo\u00eb")
+                .lastName("\u00c5ngstr\u00f6m \ud83d\ude80")
+                .email("zoe@example.com")
+                .phoneNumber(9876543210L)
+                .build();
+    }
+
+    @Test
+    void testJsonIsUtf8AndMatchesObjectMapper() throws Exception {
+        // Act
+        byte[] bytes = jsonSerializer.serialize("user_service", event);
+
+        // Assert
+        assertEquals(new ObjectMapper().writeValueAsString(event), new String(bytes, StandardCharsets.UTF_8));
+        assertEquals(event, deserializer.deserialize("user_service", bytes));
+    }
+
+    @Test
+    void testBinaryRoundTrip() {
+        // Act
+        byte[] bytes = binarySerializer.serialize("user_service", event);
+
+        // Assert
+        assertEquals(UserInfoEventCodec.MAGIC, bytes[0]);
+        assertEquals(UserInfoEventCodec.VERSION, bytes[1]);
+        assertEquals(event, deserializer.deserialize("user_service", bytes));
+        assertTrue(bytes.length < jsonSerializer.serialize("user_service", event).length);
+        System.out.println("[DEBUG_LOG] Binary size: " + bytes.length + ", JSON size: "
+                + jsonSerializer.serialize("user_service", event).length);
+    }
+
+    @Test
+    void testBinaryRoundTripWithNullFields() {
+        // Arrange
+        UserInfoEvent sparse = UserInfoEvent.builder().userId("user-1").build();
+
+        // Act
+        UserInfoEvent decoded = deserializer.deserialize("user_service", binarySerializer.serialize("user_service", sparse));
+
+        // Assert
+        assertEquals(sparse, decoded);
+    }
+
+    @Test
+    void testNullEventSerializesToNull() {
+        assertNull(jsonSerializer.serialize("user_service", null));
+        assertNull(binarySerializer.serialize("user_service", null));
+    }
+
+    @Test
+    void testUnknownBinaryVersionIsRejected() {
+        // Arrange
+        byte[] bytes = binarySerializer.serialize("user_service", event);
+        bytes[1] = 99;
+
+        // Act & Assert
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("user_service", bytes));
+    }
+
+    @Test
+    void testTruncatedBinaryIsRejected() {
+        // Arrange
+        byte[] bytes = binarySerializer.serialize("user_service", event);
+        byte[] truncated = java.util.Arrays.copyOf(bytes, bytes.length - 3);
+
+        // Act & Assert
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("user_service", truncated));
+    }
+
+    @Test
+    void testNegativeStringLengthIsRejected() {
+        // Arrange: the userId length is a five-byte varint that decodes to -1
+        byte[] malformed = {UserInfoEventCodec.MAGIC, UserInfoEventCodec.VERSION,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 'a', 'b'};
+
+        // Act & Assert
+        SerializationException e = assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("user_service", malformed));
+        System.out.println("[DEBUG_LOG] Malformed binary rejected: " + e.getMessage());
+    }
+}
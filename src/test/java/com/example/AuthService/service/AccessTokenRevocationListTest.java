@@ -0,0 +1,95 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.eventProducer.TokenRevocationProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AccessTokenRevocationListTest {
+
+    @Mock
+    private TokenRevocationProducer tokenRevocationProducer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccessTokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        revocationList = new AccessTokenRevocationList(tokenRevocationProducer, meterRegistry);
+    }
+
+    @Test
+    void testRevokeRecordsAndBroadcasts() {
+        // Arrange
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        ValidatedToken token = new ValidatedToken("testuser", expiresAt, List.of(), "jti-1");
+
+        // Act
+        revocationList.revoke(token);
+
+        // Assert
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertFalse(revocationList.isRevoked("jti-2"));
+        assertFalse(revocationList.isRevoked(null));
+        verify(tokenRevocationProducer).sendRevocation("jti-1", expiresAt);
+        assertEquals(1.0, meterRegistry.get("auth.revoked-tokens").gauge().value());
+
+        System.out.println("[DEBUG_LOG] Revoked tokens: " + revocationList.size());
+    }
+
+    @Test
+    void testRemoteRevocationIsNotRebroadcast() {
+        // Act
+        revocationList.applyRemote("jti-1", Instant.now().plusSeconds(600));
+
+        // Assert
+        assertTrue(revocationList.isRevoked("jti-1"));
+        verify(tokenRevocationProducer, never()).sendRevocation(anyString(), any(Instant.class));
+    }
+
+    @Test
+    void testExpiredRevocationsAreDroppedAndPurged() {
+        // Arrange
+        assertFalse(revocationList.applyRemote("already-expired", Instant.now().minusSeconds(1)));
+        revocationList.applyRemote("short-lived", Instant.now().plusMillis(20));
+
+        // Act
+        await(50);
+        revocationList.purgeExpired();
+
+        // Assert
+        assertFalse(revocationList.isRevoked("short-lived"));
+        assertEquals(0, revocationList.size());
+    }
+
+    @Test
+    void testTokenWithoutJtiCannotBeRevoked() {
+        // Arrange
+        ValidatedToken legacy = new ValidatedToken("testuser", Instant.now().plusSeconds(600), null, null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> revocationList.revoke(legacy));
+    }
+
+    private static void await(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.AuthService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthMetrics authMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        authMetrics = new AuthMetrics(meterRegistry);
+    }
+
+    @Test
+    void testTimeRecordsSuccessAndFailureSeparately() {
+        // Act
+        String result = authMetrics.time("jwt.sign", () -> "token");
+        assertThrows(IllegalStateException.class, () -> authMetrics.time("jwt.sign", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // Assert
+        assertEquals("token", result);
+        assertEquals(1, meterRegistry.get(AuthMetrics.STAGE_TIMER)
+                .tags("stage", "jwt.sign", "outcome", "success", "exception", "none").timer().count());
+        assertEquals(1, meterRegistry.get(AuthMetrics.STAGE_TIMER)
+                .tags("stage", "jwt.sign", "outcome", "error", "exception", "IllegalStateException").timer().count());
+
+        System.out.println("[DEBUG_LOG] Stage timers: " + meterRegistry.get(AuthMetrics.STAGE_TIMER).timers().size());
+    }
+
+    @Test
+    void testCountByOutcome() {
+        // Act
+        authMetrics.count("login", "success");
+        authMetrics.count("login", "success");
+        authMetrics.count("login", "rate_limited");
+
+        // Assert
+        assertEquals(2.0, meterRegistry.get(AuthMetrics.EVENT_COUNTER).tags("event", "login", "outcome", "success").counter().count());
+        assertEquals(1.0, meterRegistry.get(AuthMetrics.EVENT_COUNTER).tags("event", "login", "outcome", "rate_limited").counter().count());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.entities.UserRoles;
+import com.example.AuthService.repository.UserRolesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CustomUserDetailsTest {
+
+    private RoleDictionary roleDictionary;
+
+    @BeforeEach
+    void setUp() {
+        UserRolesRepository userRolesRepository = mock(UserRolesRepository.class);
+        when(userRolesRepository.findAllByOrderByRoleIdAsc()).thenReturn(List.of(new UserRoles(1L, "user"), new UserRoles(2L, "admin")));
+        roleDictionary = new RoleDictionary(userRolesRepository);
+    }
+
+    @Test
+    void testUsersWithSameRolesShareAuthorityList() {
+        // Arrange
+        RoleSet aliceRoles = roleDictionary.encode(List.of(1L, 2L));
+        RoleSet bobRoles = roleDictionary.encode(List.of(2L, 1L));
+
+        // Act
+        CustomUserDetails aliceDetails = loaded("alice", aliceRoles);
+        CustomUserDetails bobDetails = loaded("bob", bobRoles);
+        CustomUserDetails fromToken = CustomUserDetails.fromToken("carol", List.of("USER", "ADMIN"));
+
+        // Assert
+        assertSame(aliceDetails.getAuthorities(), bobDetails.getAuthorities());
+        assertSame(aliceDetails.getAuthorities(), fromToken.getAuthorities());
+        assertEquals(List.of("ADMIN", "USER"), aliceDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals("", fromToken.getPassword());
+
+        System.out.println("[DEBUG_LOG] Shared authorities: " + aliceDetails.getAuthorities());
+    }
+
+    @Test
+    void testTokenPrincipalCarriesRoleBits() {
+        // Act
+        CustomUserDetails known = CustomUserDetails.fromToken("carol", List.of("admin"), roleDictionary.encodeNames(List.of("admin")));
+        CustomUserDetails unknown = CustomUserDetails.fromToken("dave", List.of("AUDITOR"), roleDictionary.encodeNames(List.of("AUDITOR")));
+
+        // Assert
+        assertEquals(roleDictionary.encode(List.of(2L)), known.getRoles());
+        assertNull(unknown.getRoles());
+        assertEquals(List.of("AUDITOR"), unknown.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void testAuthoritiesAreImmutable() {
+        // Arrange
+        CustomUserDetails details = loaded("alice", roleDictionary.encode(List.of(1L)));
+
+        // Act & Assert
+        @SuppressWarnings("unchecked")
+        List<GrantedAuthority> authorities = (List<GrantedAuthority>) details.getAuthorities();
+        assertThrows(UnsupportedOperationException.class, () -> authorities.clear());
+        assertTrue(loaded("dave", roleDictionary.encode(List.of())).getAuthorities().isEmpty());
+        assertFalse(details.toString().contains("encodedPassword"));
+    }
+
+    private CustomUserDetails loaded(String username, RoleSet roles) {
+        return new CustomUserDetails(username, "encodedPassword", roles, roleDictionary.authorities(roles));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.AuthService.service;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtKeyRingTest {
+
+    private static final String ROTATED_SECRET = Base64.getEncoder()
+            .encodeToString("a-completely-different-secret-for-key-two!!".getBytes());
+
+    private JwtKeyRing keyRing;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = JwtKeyRing.fromSecret(JwtKeyRing.DEFAULT_KID, JwtService.SECRET_KEY);
+        jwtService = new JwtService(keyRing);
+    }
+
+    @Test
+    void testTokenCarriesActiveKid() {
+        String token = jwtService.GenerateToken("testuser");
+
+        String kid = keyRing.parser().parseSignedClaims(token).getHeader().getKeyId();
+
+        assertEquals(JwtKeyRing.DEFAULT_KID, kid);
+    }
+
+    @Test
+    void testRotationKeepsOldTokensVerifiable() {
+        String oldToken = jwtService.GenerateToken("testuser");
+        long generation = keyRing.generation();
+
+        keyRing.rotate("k2", ROTATED_SECRET);
+        String newToken = jwtService.GenerateToken("testuser");
+
+        assertEquals("k2", keyRing.activeKid());
+        assertTrue(keyRing.generation() > generation);
+        assertEquals("testuser", jwtService.extractUsername(oldToken));
+        assertEquals("testuser", jwtService.extractUsername(newToken));
+        assertEquals("k2", keyRing.parser().parseSignedClaims(newToken).getHeader().getKeyId());
+    }
+
+    @Test
+    void testRetiredKeyIsRejected() {
+        String oldToken = jwtService.GenerateToken("testuser");
+
+        keyRing.rotate("k2", ROTATED_SECRET);
+        keyRing.retire(JwtKeyRing.DEFAULT_KID);
+
+        assertThrows(JwtException.class, () -> jwtService.extractUsername(oldToken));
+        assertThrows(IllegalArgumentException.class, () -> keyRing.retire("k2"));
+    }
+
+    @Test
+    void testTokenWithoutKidUsesDefaultKey() {
+        String legacyToken = Jwts.builder()
+                .subject("testuser")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtService.SECRET_KEY)), Jwts.SIG.HS256)
+                .compact();
+
+        assertEquals("testuser", jwtService.extractUsername(legacyToken));
+    }
+
+    @Test
+    void testAsymmetricSigningPublishesOnlyPublicKeys() {
+        // Arrange
+        JwtKeyRing rsaRing = new JwtKeyRing("", "", "", "RS256", "", "", "");
+        JwtService rsaJwtService = new JwtService(rsaRing);
+
+        // Act
+        String token = rsaJwtService.GenerateToken("testuser");
+        String jwks = new String(rsaRing.jwkSet().json(), StandardCharsets.UTF_8);
+
+        // Assert
+        assertEquals("RS256", rsaRing.parser().parseSignedClaims(token).getHeader().getAlgorithm());
+        assertEquals("testuser", rsaJwtService.extractUsername(token));
+        assertTrue(jwks.contains("\"kid\":\"" + rsaRing.activeKid() + "\""));
+        assertTrue(jwks.contains("\"kty\":\"RSA\""));
+        assertFalse(jwks.contains(JwtKeyRing.DEFAULT_KID));
+        assertFalse(jwks.contains("\"d\""));
+        System.out.println("[DEBUG_LOG] JWKS: " + jwks);
+    }
+
+    @Test
+    void testRotationToEdDsaChangesJwkSet() {
+        // Arrange
+        String etag = keyRing.jwkSet().etag();
+        String hmacToken = jwtService.GenerateToken("testuser");
+        KeyPair keyPair = Jwts.SIG.EdDSA.keyPair().build();
+
+        // Act
+        keyRing.rotate("ed-1", keyPair, "EdDSA");
+        String edToken = jwtService.GenerateToken("testuser");
+
+        // Assert
+        assertNotEquals(etag, keyRing.jwkSet().etag());
+        assertEquals("EdDSA", keyRing.parser().parseSignedClaims(edToken).getHeader().getAlgorithm());
+        assertEquals("testuser", jwtService.extractUsername(hmacToken));
+        assertEquals("testuser", jwtService.extractUsername(edToken));
+    }
+
+    @Test
+    void testKeysFileWithoutActiveKidIsRejected(@TempDir Path dir) throws IOException {
+        // Arrange
+        Path keysFile = dir.resolve("jwt-keys.properties");
+        Files.writeString(keysFile, "keys.k1=" + JwtService.SECRET_KEY + "\nkeys.k2=" + ROTATED_SECRET + "\n");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing("", "", keysFile.toString(), "HS256", "", "", ""));
+
+        Files.writeString(keysFile, "active-kid=k2\nkeys.k1=" + JwtService.SECRET_KEY + "\nkeys.k2=" + ROTATED_SECRET + "\n");
+        assertEquals("k2", new JwtKeyRing("", "", keysFile.toString(), "HS256", "", "", "").activeKid());
+    }
+
+    @Test
+    void testAsymmetricModeRejectsBuiltInSecret() {
+        // Arrange
+        JwtKeyRing rsaRing = new JwtKeyRing("", "", "", "RS256", "", "", "");
+        JwtService rsaJwtService = new JwtService(rsaRing);
+        String forged = Jwts.builder()
+                .subject("admin")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtService.SECRET_KEY)), Jwts.SIG.HS256)
+                .compact();
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> rsaJwtService.extractUsername(forged));
+        assertThrows(IllegalArgumentException.class,
+                () -> new JwtKeyRing(JwtKeyRing.DEFAULT_KID + ":" + JwtService.SECRET_KEY, "", "", "RS256", "", "", "2999-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void testConfiguredHmacKeysNeedSunsetInAsymmetricMode() {
+        // Arrange
+        String legacyKeys = "old:" + ROTATED_SECRET;
+        String legacyToken = new JwtService(JwtKeyRing.fromSecret("old", ROTATED_SECRET)).GenerateToken("testuser");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(legacyKeys, "", "", "RS256", "", "", ""));
+
+        JwtKeyRing beforeSunset = new JwtKeyRing(legacyKeys, "", "", "RS256", "", "", "2999-01-01T00:00:00Z");
+        assertEquals("testuser", new JwtService(beforeSunset).extractUsername(legacyToken));
+
+        JwtKeyRing afterSunset = new JwtKeyRing(legacyKeys, "", "", "RS256", "", "", "2000-01-01T00:00:00Z");
+        assertThrows(JwtException.class, () -> new JwtService(afterSunset).extractUsername(legacyToken));
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.AuthService.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -100,4 +104,45 @@ public class JwtServiceTest {
         assertEquals(username, subject);
         System.out.println("[DEBUG_LOG] Extracted subject: " + subject);
     }
+
+    @Test
+    void testValidate() {
+        // Arrange
+        String token = jwtService.GenerateToken(username);
+
+        // Act
+        ValidatedToken validatedToken = jwtService.validate(token);
+
+        // Assert
+        assertEquals(username, validatedToken.subject());
+        assertTrue(validatedToken.expiresAt().isAfter(Instant.now()));
+        assertTrue(validatedToken.isValidFor(userDetails));
+        assertNull(validatedToken.authorities());
+        assertNotNull(validatedToken.jti());
+        assertNotEquals(validatedToken.jti(), jwtService.validate(jwtService.GenerateToken(username)).jti());
+        System.out.println("[DEBUG_LOG] Validated token expires at: " + validatedToken.expiresAt());
+    }
+
+    @Test
+    void testValidateTamperedToken() {
+        // Arrange
+        String token = jwtService.GenerateToken(username);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtService.validate(tampered));
+    }
+
+    @Test
+    void testGenerateTokenWithAuthorities() {
+        // Arrange
+        UserDetails admin = new User(username, "password", AuthorityUtils.createAuthorityList("ADMIN", "USER"));
+
+        // Act
+        ValidatedToken validatedToken = jwtService.validate(jwtService.GenerateToken(admin));
+
+        // Assert
+        assertEquals(List.of("ADMIN", "USER"), validatedToken.authorities());
+        System.out.println("[DEBUG_LOG] Authorities from token: " + validatedToken.authorities());
+    }
 }
\ No newline at end of file
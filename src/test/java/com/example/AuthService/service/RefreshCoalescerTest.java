@@ -0,0 +1,98 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.response.JwtResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RefreshCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new RefreshCoalescer(10_000, 100, meterRegistry);
+    }
+
+    @Test
+    void testConcurrentRefreshesShareOneRotation() throws Exception {
+        // Arrange
+        AtomicInteger rotations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<JwtResponseDto>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> coalescer.refresh("refresh-token", () -> {
+                    rotations.incrementAndGet();
+                    await(release);
+                    return response("access-1");
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            for (Future<JwtResponseDto> result : results) {
+                assertEquals("access-1", result.get(5, TimeUnit.SECONDS).getAccessToken());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, rotations.get());
+        assertEquals(3.0, meterRegistry.get("auth.refresh.coalesced").counter().count());
+
+        System.out.println("[DEBUG_LOG] Rotations for 4 concurrent refreshes: " + rotations.get());
+    }
+
+    @Test
+    void testLateArrivalGetsGraceResponse() {
+        // Arrange
+        coalescer.refresh("refresh-token", () -> response("access-1"));
+
+        // Act
+        JwtResponseDto late = coalescer.refresh("refresh-token", () -> response("access-2"));
+
+        // Assert
+        assertEquals("access-1", late.getAccessToken());
+    }
+
+    @Test
+    void testFailuresAreNotCached() {
+        // Arrange & Act
+        assertThrows(InvalidRefreshTokenException.class, () -> coalescer.refresh("refresh-token", () -> {
+            throw new InvalidRefreshTokenException("expired");
+        }));
+        JwtResponseDto retried = coalescer.refresh("refresh-token", () -> response("access-2"));
+
+        // Assert
+        assertEquals("access-2", retried.getAccessToken());
+    }
+
+    private static JwtResponseDto response(String accessToken) {
+        return JwtResponseDto.builder().accessToken(accessToken).token("next").build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.AuthService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenHistoryWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RefreshTokenHistoryWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new RefreshTokenHistoryWriter(jdbcTemplate, meterRegistry, 3, 2);
+    }
+
+    @Test
+    void testFlushWritesQueuedHashesInBatches() {
+        // Arrange
+        Instant familyExpiresAt = Instant.now().plusSeconds(3600);
+        for (int i = 0; i < 3; i++) {
+            writer.record(RefreshTokenService.hash("token-" + i), "family-1", familyExpiresAt);
+        }
+
+        // Act
+        writer.flush();
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((Collection<?> rows) -> rows.size() == 2), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((Collection<?> rows) -> rows.size() == 1), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(3.0, meterRegistry.get("auth.refresh-token-history.written").counter().count());
+
+        System.out.println("[DEBUG_LOG] Refresh token history written in two batches");
+    }
+
+    @Test
+    void testFullQueueAndFailedWritesAreCountedAsDropped() {
+        // Arrange
+        Instant familyExpiresAt = Instant.now().plusSeconds(3600);
+        for (int i = 0; i < 4; i++) {
+            writer.record(RefreshTokenService.hash("token-" + i), "family-1", familyExpiresAt);
+        }
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(new int[][]{{1}});
+
+        // Act
+        writer.flush();
+
+        // Assert
+        assertEquals(3.0, meterRegistry.get("auth.refresh-token-history.dropped").counter().count());
+        assertEquals(1.0, meterRegistry.get("auth.refresh-token-history.written").counter().count());
+    }
+}
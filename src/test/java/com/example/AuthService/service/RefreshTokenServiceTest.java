@@ -2,15 +2,23 @@ package com.example.AuthService.service;
 
 import com.example.AuthService.entities.RefreshToken;
 import com.example.AuthService.entities.UserInfo;
+import com.example.AuthService.models.RefreshTokenGraceView;
+import com.example.AuthService.models.RefreshTokenView;
+import com.example.AuthService.repository.RefreshTokenHistoryRepository;
 import com.example.AuthService.repository.RefreshTokenRepository;
 import com.example.AuthService.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Optional;
@@ -18,6 +26,8 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,15 +36,23 @@ public class RefreshTokenServiceTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private RefreshTokenHistoryRepository refreshTokenHistoryRepository;
+
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private RefreshTokenHistoryWriter refreshTokenHistoryWriter;
+
+    @Spy
+    private AuthMetrics authMetrics = new AuthMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private RefreshTokenService refreshTokenService;
 
     private UserInfo testUser;
     private RefreshToken validRefreshToken;
-    private RefreshToken expiredRefreshToken;
 
     @BeforeEach
     void setUp() {
@@ -56,13 +74,6 @@ public class RefreshTokenServiceTest {
                 .userInfo(testUser)
                 .expiryDate(Instant.now().plusMillis(1000 * 60 * 60)) // 1 hour in the future
                 .build();
-
-        // Create an expired refresh token
-        expiredRefreshToken = RefreshToken.builder()
-                .token(UUID.randomUUID().toString())
-                .userInfo(testUser)
-                .expiryDate(Instant.now().minusMillis(1000 * 60 * 60)) // 1 hour in the past
-                .build();
     }
 
     @Test
@@ -78,8 +89,13 @@ public class RefreshTokenServiceTest {
         assertNotNull(result);
         assertEquals(testUser, result.getUserInfo());
         assertNotNull(result.getToken());
+        assertArrayEquals(RefreshTokenService.hash(result.getToken()), result.getTokenHash());
+        assertEquals(32, result.getTokenHash().length);
+        assertNotNull(result.getFamilyId());
         assertNotNull(result.getExpiryDate());
         assertTrue(result.getExpiryDate().isAfter(Instant.now()));
+        assertNotNull(result.getFamilyExpiresAt());
+        assertFalse(result.getExpiryDate().isAfter(result.getFamilyExpiresAt()));
         
         verify(userRepository).findByUsername("testuser");
         verify(refreshTokenRepository).save(any(RefreshToken.class));
@@ -87,37 +103,11 @@ public class RefreshTokenServiceTest {
         System.out.println("[DEBUG_LOG] Created refresh token: " + result.getToken());
     }
 
-    @Test
-    void testVerifyRefreshToken_Valid() {
-        // Act
-        RefreshToken result = refreshTokenService.verifyRefreshToken(validRefreshToken);
-
-        // Assert
-        assertEquals(validRefreshToken, result);
-        System.out.println("[DEBUG_LOG] Verified valid refresh token: " + result.getToken());
-    }
-
-    @Test
-    void testVerifyRefreshToken_Expired() {
-        // Arrange
-        doNothing().when(refreshTokenRepository).delete(expiredRefreshToken);
-
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            refreshTokenService.verifyRefreshToken(expiredRefreshToken);
-        });
-        
-        assertTrue(exception.getMessage().contains("has expired"));
-        verify(refreshTokenRepository).delete(expiredRefreshToken);
-        
-        System.out.println("[DEBUG_LOG] Exception when verifying expired token: " + exception.getMessage());
-    }
-
     @Test
     void testFindByToken() {
         // Arrange
         String tokenValue = validRefreshToken.getToken();
-        when(refreshTokenRepository.findByToken(tokenValue)).thenReturn(Optional.of(validRefreshToken));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(tokenValue))).thenReturn(Optional.of(validRefreshToken));
 
         // Act
         Optional<RefreshToken> result = refreshTokenService.findByToken(tokenValue);
@@ -125,7 +115,7 @@ public class RefreshTokenServiceTest {
         // Assert
         assertTrue(result.isPresent());
         assertEquals(validRefreshToken, result.get());
-        verify(refreshTokenRepository).findByToken(tokenValue);
+        verify(refreshTokenRepository).findByTokenHash(RefreshTokenService.hash(tokenValue));
         
         System.out.println("[DEBUG_LOG] Found refresh token: " + result.get().getToken());
     }
@@ -134,15 +124,112 @@ public class RefreshTokenServiceTest {
     void testFindByToken_NotFound() {
         // Arrange
         String nonExistentToken = "non-existent-token";
-        when(refreshTokenRepository.findByToken(nonExistentToken)).thenReturn(Optional.empty());
+        when(refreshTokenRepository.findByTokenHash(any(byte[].class))).thenReturn(Optional.empty());
 
         // Act
         Optional<RefreshToken> result = refreshTokenService.findByToken(nonExistentToken);
 
         // Assert
         assertFalse(result.isPresent());
-        verify(refreshTokenRepository).findByToken(nonExistentToken);
+        verify(refreshTokenRepository).findByTokenHash(RefreshTokenService.hash(nonExistentToken));
         
         System.out.println("[DEBUG_LOG] Token not found: " + nonExistentToken);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRotateRefreshToken() {
+        // Arrange
+        String tokenValue = validRefreshToken.getToken();
+        when(refreshTokenRepository.rotate(eq(RefreshTokenService.hash(tokenValue)), any(byte[].class), any(byte[].class), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        Instant familyExpiresAt = Instant.now().plus(Duration.ofDays(7));
+        when(refreshTokenRepository.findViewByTokenHash(any(byte[].class)))
+                .thenReturn(Optional.of(new RefreshTokenView(1, Instant.now().plusSeconds(3600), testUser.getUserId(), "testuser",
+                        "family-1", familyExpiresAt)));
+
+        // Act
+        RotatedRefreshToken rotated = refreshTokenService.rotateRefreshToken(tokenValue);
+
+        // Assert
+        assertEquals("testuser", rotated.username());
+        assertNotEquals(tokenValue, rotated.token());
+        verify(refreshTokenRepository).findViewByTokenHash(RefreshTokenService.hash(rotated.token()));
+        verify(refreshTokenRepository, never()).deleteByFamilyId(anyString());
+        verify(refreshTokenHistoryWriter).record(RefreshTokenService.hash(tokenValue), "family-1", familyExpiresAt);
+        verifyNoInteractions(refreshTokenHistoryRepository);
+
+        System.out.println("[DEBUG_LOG] Rotated refresh token to: " + rotated.token());
+    }
+
+    @Test
+    void testRotateReusedTokenRevokesFamily() {
+        // Arrange
+        String reused = "already-rotated-token";
+        when(refreshTokenRepository.rotate(any(byte[].class), any(byte[].class), any(byte[].class), any(Instant.class), any(Instant.class))).thenReturn(0);
+        when(refreshTokenRepository.findGraceViewByPreviousTokenHash(any(byte[].class))).thenReturn(Optional.empty());
+        when(refreshTokenHistoryRepository.findFamilyIdByTokenHash(RefreshTokenService.hash(reused))).thenReturn(Optional.of("family-1"));
+
+        // Act & Assert
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotateRefreshToken(reused));
+        verify(refreshTokenRepository).deleteByFamilyId("family-1");
+
+        System.out.println("[DEBUG_LOG] Reused refresh token revoked its family");
+    }
+
+    @Test
+    void testRotateUnknownToken() {
+        // Arrange
+        when(refreshTokenRepository.rotate(any(byte[].class), any(byte[].class), any(byte[].class), any(Instant.class), any(Instant.class))).thenReturn(0);
+        when(refreshTokenRepository.findGraceViewByPreviousTokenHash(any(byte[].class))).thenReturn(Optional.empty());
+        when(refreshTokenHistoryRepository.findFamilyIdByTokenHash(any(byte[].class))).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotateRefreshToken("unknown"));
+        verify(refreshTokenRepository, never()).deleteByFamilyId(anyString());
+    }
+
+    @Test
+    void testRotateWithinGraceReturnsSuccessor() {
+        // Arrange
+        String tokenValue = validRefreshToken.getToken();
+        ArgumentCaptor<byte[]> sealed = ArgumentCaptor.forClass(byte[].class);
+        when(refreshTokenRepository.rotate(eq(RefreshTokenService.hash(tokenValue)), any(byte[].class), sealed.capture(), any(Instant.class), any(Instant.class)))
+                .thenReturn(1)
+                .thenReturn(0);
+        when(refreshTokenRepository.findViewByTokenHash(any(byte[].class)))
+                .thenReturn(Optional.of(new RefreshTokenView(1, Instant.now().plusSeconds(3600), testUser.getUserId(), "testuser",
+                        "family-1", Instant.now().plus(Duration.ofDays(7)))));
+        RotatedRefreshToken first = refreshTokenService.rotateRefreshToken(tokenValue);
+        when(refreshTokenRepository.findGraceViewByPreviousTokenHash(RefreshTokenService.hash(tokenValue)))
+                .thenReturn(Optional.of(new RefreshTokenGraceView(sealed.getAllValues().get(0), Instant.now(),
+                        Instant.now().plusSeconds(3600), "testuser", "family-1")));
+
+        // Act
+        RotatedRefreshToken second = refreshTokenService.rotateRefreshToken(tokenValue);
+
+        // Assert
+        assertEquals(first.token(), second.token());
+        assertEquals("testuser", second.username());
+        assertFalse(new String(sealed.getAllValues().get(0), StandardCharsets.ISO_8859_1).contains(first.token()));
+        verify(refreshTokenHistoryRepository, never()).findFamilyIdByTokenHash(any(byte[].class));
+        verify(refreshTokenRepository, never()).deleteByFamilyId(anyString());
+
+        System.out.println("[DEBUG_LOG] Duplicate refresh within grace got: " + second.token());
+    }
+
+    @Test
+    void testRotateAfterGraceRevokesFamily() {
+        // Arrange
+        String reused = "rotated-a-while-ago";
+        when(refreshTokenRepository.rotate(any(byte[].class), any(byte[].class), any(byte[].class), any(Instant.class), any(Instant.class))).thenReturn(0);
+        when(refreshTokenRepository.findGraceViewByPreviousTokenHash(RefreshTokenService.hash(reused)))
+                .thenReturn(Optional.of(new RefreshTokenGraceView(new byte[64], Instant.now().minusSeconds(60),
+                        Instant.now().plusSeconds(3600), "testuser", "family-1")));
+
+        // Act & Assert
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotateRefreshToken(reused));
+        verify(refreshTokenRepository).deleteByFamilyId("family-1");
+        // the previous generation is recognised from the token row, without reading the history
+        verifyNoInteractions(refreshTokenHistoryRepository);
+    }
+}
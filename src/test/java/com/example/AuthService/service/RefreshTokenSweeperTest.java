@@ -0,0 +1,143 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.repository.RefreshTokenHistoryRepository;
+import com.example.AuthService.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenSweeperTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private RefreshTokenHistoryRepository refreshTokenHistoryRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RefreshTokenSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        sweeper = new RefreshTokenSweeper(refreshTokenRepository, refreshTokenHistoryRepository, transactionTemplate, meterRegistry, 2, 0, 10);
+    }
+
+    @Test
+    void testSweepDeletesUntilShortBatch() {
+        // Arrange
+        when(refreshTokenRepository.findExpiredIds(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(1, 2))
+                .thenReturn(List.of(3));
+        when(refreshTokenRepository.deleteByIdIn(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        verify(refreshTokenRepository).deleteByIdIn(List.of(1, 2));
+        verify(refreshTokenRepository).deleteByIdIn(List.of(3));
+        assertEquals(3.0, meterRegistry.get("auth.refresh-tokens.purged").counter().count());
+        assertEquals(1, meterRegistry.get("auth.refresh-tokens.sweep").timer().count());
+
+        System.out.println("[DEBUG_LOG] Purged: " + meterRegistry.get("auth.refresh-tokens.purged").counter().count());
+    }
+
+    @Test
+    void testSweepPurgesExpiredHistory() {
+        // Arrange
+        when(refreshTokenRepository.findExpiredIds(any(Instant.class), any(Pageable.class))).thenReturn(List.of());
+        when(refreshTokenHistoryRepository.findExpiredIds(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(7, 5))
+                .thenReturn(List.of());
+        when(refreshTokenHistoryRepository.deleteByIdIn(anyList())).thenReturn(2);
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        verify(refreshTokenHistoryRepository).deleteByIdIn(List.of(5, 7));
+        assertEquals(2.0, meterRegistry.get("auth.refresh-token-history.purged").counter().count());
+        assertEquals(0.0, meterRegistry.get("auth.refresh-tokens.purged").counter().count());
+
+        System.out.println("[DEBUG_LOG] History purged: " + meterRegistry.get("auth.refresh-token-history.purged").counter().count());
+    }
+
+    @Test
+    void testSweepStopsAtMaxBatches() {
+        // Arrange
+        sweeper = new RefreshTokenSweeper(refreshTokenRepository, refreshTokenHistoryRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry, 2, 0, 3);
+        when(refreshTokenRepository.findExpiredIds(any(Instant.class), any(Pageable.class))).thenReturn(List.of(1, 2));
+        when(refreshTokenRepository.deleteByIdIn(anyList())).thenReturn(2);
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        verify(refreshTokenRepository, times(3)).deleteByIdIn(anyList());
+        assertEquals(6.0, meterRegistry.get("auth.refresh-tokens.purged").counter().count());
+    }
+
+    @Test
+    void testSweepWithNothingExpired() {
+        // Arrange
+        when(refreshTokenRepository.findExpiredIds(any(Instant.class), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        verify(refreshTokenRepository, never()).deleteByIdIn(anyList());
+        assertEquals(0.0, meterRegistry.get("auth.refresh-tokens.purged").counter().count());
+    }
+
+    @Test
+    void testSweepYieldsToConcurrentSweep() {
+        // Arrange
+        when(refreshTokenRepository.findExpiredIds(any(Instant.class), any(Pageable.class))).thenReturn(List.of(2, 1));
+        when(refreshTokenRepository.deleteByIdIn(anyList()))
+                .thenReturn(2)
+                .thenThrow(new CannotAcquireLockException("Lock wait timeout exceeded"));
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        verify(refreshTokenRepository, times(2)).deleteByIdIn(List.of(1, 2));
+        assertEquals(2.0, meterRegistry.get("auth.refresh-tokens.purged").counter().count());
+    }
+
+    @Test
+    void testSweepRestoresInterruptFlag() {
+        // Arrange
+        sweeper = new RefreshTokenSweeper(refreshTokenRepository, refreshTokenHistoryRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry, 2, 1000, 3);
+        when(refreshTokenRepository.findExpiredIds(any(Instant.class), any(Pageable.class))).thenReturn(List.of(1, 2));
+        when(refreshTokenRepository.deleteByIdIn(anyList())).thenReturn(2);
+        Thread.currentThread().interrupt();
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        assertTrue(Thread.interrupted());
+        verify(refreshTokenRepository, times(1)).deleteByIdIn(anyList());
+    }
+}
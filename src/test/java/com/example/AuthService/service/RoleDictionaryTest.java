@@ -0,0 +1,122 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.entities.UserRoles;
+import com.example.AuthService.repository.UserRolesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RoleDictionaryTest {
+
+    @Mock
+    private UserRolesRepository userRolesRepository;
+
+    private RoleDictionary roleDictionary;
+
+    @BeforeEach
+    void setUp() {
+        roleDictionary = new RoleDictionary(userRolesRepository);
+    }
+
+    @Test
+    void testEncodeAndShareAuthorities() {
+        // Arrange
+        when(userRolesRepository.findAllByOrderByRoleIdAsc()).thenReturn(List.of(new UserRoles(1L, "user"), new UserRoles(5L, "admin")));
+
+        // Act
+        RoleSet both = roleDictionary.encode(List.of(5L, 1L));
+        RoleSet same = roleDictionary.encode(List.of(1L, 5L));
+
+        // Assert
+        assertEquals(both, same);
+        assertTrue(both.has(roleDictionary.bit("ADMIN")));
+        assertTrue(both.has(roleDictionary.bit("user")));
+        assertFalse(both.has(roleDictionary.bit("missing")));
+        assertSame(roleDictionary.authorities(both), roleDictionary.authorities(same));
+        assertEquals(List.of("ADMIN", "USER"), roleDictionary.authorities(both).stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(RoleSet.EMPTY, roleDictionary.encode(List.of()));
+        verify(userRolesRepository, times(1)).findAllByOrderByRoleIdAsc();
+
+        System.out.println("[DEBUG_LOG] Role set: " + both);
+    }
+
+    @Test
+    void testUnknownRoleIdReloadsAndKeepsExistingBits() {
+        // Arrange
+        when(userRolesRepository.findAllByOrderByRoleIdAsc())
+                .thenReturn(List.of(new UserRoles(1L, "user"), new UserRoles(2L, "admin")))
+                .thenReturn(List.of(new UserRoles(2L, "admin"), new UserRoles(3L, "auditor")));
+        RoleSet admin = roleDictionary.encode(List.of(2L));
+        int adminBit = roleDictionary.bit("admin");
+
+        // Act
+        RoleSet auditor = roleDictionary.encode(List.of(3L));
+
+        // Assert
+        assertEquals(adminBit, roleDictionary.bit("admin"));
+        assertEquals(admin, roleDictionary.encode(List.of(2L)));
+        assertEquals(-1, roleDictionary.bit("user"));
+        assertEquals(2, roleDictionary.bit("auditor"));
+        assertTrue(auditor.has(2));
+        verify(userRolesRepository, times(2)).findAllByOrderByRoleIdAsc();
+    }
+
+    @Test
+    void testLoadsAtStartupAndConcurrentMissesShareOneReload() throws Exception {
+        // Arrange
+        when(userRolesRepository.findAllByOrderByRoleIdAsc())
+                .thenReturn(List.of(new UserRoles(1L, "user")))
+                .thenReturn(List.of(new UserRoles(1L, "user"), new UserRoles(2L, "admin")));
+        roleDictionary.load();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act
+        List<Future<RoleSet>> results;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            results = IntStream.range(0, 50)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return roleDictionary.encode(List.of(2L));
+                    }))
+                    .toList();
+            start.countDown();
+        }
+
+        // Assert
+        for (Future<RoleSet> result : results) {
+            assertTrue(result.get().has(roleDictionary.bit("admin")));
+        }
+        verify(userRolesRepository, times(2)).findAllByOrderByRoleIdAsc();
+
+        System.out.println("[DEBUG_LOG] 50 concurrent misses caused a single reload");
+    }
+
+    @Test
+    void testFailedStartupLoadIsRetriedOnFirstUse() {
+        // Arrange
+        when(userRolesRepository.findAllByOrderByRoleIdAsc())
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(List.of(new UserRoles(1L, "user")));
+
+        // Act
+        roleDictionary.load();
+        int userBit = roleDictionary.bit("user");
+
+        // Assert
+        assertEquals(0, userBit);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.response.TokenIntrospection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TokenIntrospectionServiceTest {
+
+    private JwtService jwtService;
+    private AccessTokenRevocationList revocationList;
+    private SimpleMeterRegistry meterRegistry;
+    private TokenIntrospectionService introspectionService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        revocationList = mock(AccessTokenRevocationList.class);
+        meterRegistry = new SimpleMeterRegistry();
+        introspectionService = new TokenIntrospectionService(jwtService, revocationList, new AuthMetrics(meterRegistry), 30);
+    }
+
+    @Test
+    void testIntrospectReturnsOneResultPerTokenInOrder() {
+        // Arrange
+        String valid = jwtService.GenerateToken("alice", AuthorityUtils.createAuthorityList("ADMIN"));
+        String revoked = jwtService.GenerateToken("bob", List.of());
+        when(revocationList.isRevoked(anyString())).thenReturn(false);
+        when(revocationList.isRevoked(jwtService.validate(revoked).jti())).thenReturn(true);
+
+        // Act
+        List<TokenIntrospection> results = introspectionService.introspect(Arrays.asList(valid, "not-a-jwt", revoked, null));
+
+        // Assert
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).active());
+        assertEquals("alice", results.get(0).sub());
+        assertEquals(List.of("ADMIN"), results.get(0).authorities());
+        assertEquals(jwtService.validate(valid).expiresAt().getEpochSecond(), results.get(0).exp());
+        assertEquals(TokenIntrospection.inactive(), results.get(1));
+        assertEquals(TokenIntrospection.inactive(), results.get(2));
+        assertEquals(TokenIntrospection.inactive(), results.get(3));
+        assertEquals(3.0, meterRegistry.get(AuthMetrics.EVENT_COUNTER).tags("event", "introspect", "outcome", "inactive").counter().count());
+
+        System.out.println("[DEBUG_LOG] Introspection results: " + results);
+    }
+
+    @Test
+    void testCacheAgeIsBoundedByEarliestExpiry() {
+        // Arrange
+        long now = Instant.now().getEpochSecond();
+        List<TokenIntrospection> results = List.of(
+                new TokenIntrospection(true, "alice", now + 600, List.of()),
+                new TokenIntrospection(true, "bob", now + 10, List.of()),
+                TokenIntrospection.inactive());
+
+        // Act
+        Duration age = introspectionService.cacheAge(results);
+
+        // Assert
+        assertTrue(age.getSeconds() <= 10 && age.getSeconds() >= 9, "age was " + age);
+        assertEquals(Duration.ofSeconds(30), introspectionService.cacheAge(List.of(TokenIntrospection.inactive())));
+    }
+}
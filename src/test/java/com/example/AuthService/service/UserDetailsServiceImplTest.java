@@ -1,23 +1,37 @@
 package com.example.AuthService.service;
 
 import com.example.AuthService.entities.UserInfo;
-import com.example.AuthService.eventProducer.UserInfoProducer;
+import com.example.AuthService.entities.UserRoles;
+import com.example.AuthService.eventProducer.UserCacheInvalidationProducer;
+import com.example.AuthService.eventProducer.UserInfoEvent;
+import com.example.AuthService.eventProducer.UserInfoOutbox;
+import com.example.AuthService.models.UserCredentialsRow;
 import com.example.AuthService.models.UserInfoDto;
+import com.example.AuthService.models.UserSummary;
 import com.example.AuthService.repository.UserRepository;
+import com.example.AuthService.repository.UserRolesRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,7 +51,29 @@ public class UserDetailsServiceImplTest {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private UserInfoProducer userInfoProducer;
+    private UserInfoOutbox userInfoOutbox;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private UserDetailsCache userDetailsCache = new UserDetailsCache(true, 100, 300, new SimpleMeterRegistry());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private AuthMetrics authMetrics = new AuthMetrics(meterRegistry);
+
+    @Mock
+    private UserCacheInvalidationProducer userCacheInvalidationProducer;
+
+    @Mock
+    private UsernameIndex usernameIndex;
+
+    private final UserRolesRepository userRolesRepository = mock(UserRolesRepository.class);
+
+    @Spy
+    private RoleDictionary roleDictionary = new RoleDictionary(userRolesRepository);
 
     @InjectMocks
     private UserDetailsServiceImpl userDetailsService;
@@ -73,7 +109,7 @@ public class UserDetailsServiceImplTest {
     @Test
     void testLoadUserByUsername() {
         // Arrange
-        when(userRepository.findByUsername("testuser")).thenReturn(testUser);
+        when(userRepository.findCredentialsByUsername("testuser")).thenReturn(List.of(credentials(null)));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("testuser");
@@ -82,7 +118,9 @@ public class UserDetailsServiceImplTest {
         assertNotNull(userDetails);
         assertEquals("testuser", userDetails.getUsername());
         assertEquals("encodedPassword", userDetails.getPassword());
-        verify(userRepository).findByUsername("testuser");
+        assertTrue(userDetails.getAuthorities().isEmpty());
+        verify(userRepository).findCredentialsByUsername("testuser");
+        verify(userRepository, never()).findByUsername(anyString());
         
         System.out.println("[DEBUG_LOG] Loaded user: " + userDetails.getUsername());
     }
@@ -90,7 +128,7 @@ public class UserDetailsServiceImplTest {
     @Test
     void testLoadUserByUsername_UserNotFound() {
         // Arrange
-        when(userRepository.findByUsername("nonexistentuser")).thenReturn(null);
+        when(userRepository.findCredentialsByUsername("nonexistentuser")).thenReturn(List.of());
 
         // Act & Assert
         UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> {
@@ -98,11 +136,57 @@ public class UserDetailsServiceImplTest {
         });
         
         assertEquals("User not found", exception.getMessage());
-        verify(userRepository).findByUsername("nonexistentuser");
+        verify(userRepository).findCredentialsByUsername("nonexistentuser");
         
         System.out.println("[DEBUG_LOG] Exception when loading non-existent user: " + exception.getMessage());
     }
 
+    @Test
+    void testLoadUserByUsernameIsCached() {
+        // Arrange
+        when(userRepository.findCredentialsByUsername("testuser")).thenReturn(List.of(credentials(null)));
+
+        // Act
+        UserDetails first = userDetailsService.loadUserByUsername("testuser");
+        UserDetails second = userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        assertSame(first, second);
+        verify(userRepository, times(1)).findCredentialsByUsername("testuser");
+    }
+
+    @Test
+    void testEvictUserReloadsAndBroadcasts() {
+        // Arrange
+        when(userRepository.findCredentialsByUsername("testuser")).thenReturn(List.of(credentials(null)));
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Act
+        userDetailsService.evictUser("testuser");
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        verify(userRepository, times(2)).findCredentialsByUsername("testuser");
+        verify(userCacheInvalidationProducer).sendInvalidation("testuser");
+    }
+
+    @Test
+    void testLoadUserByUsernameResolvesRolesThroughDictionary() {
+        // Arrange
+        when(userRolesRepository.findAllByOrderByRoleIdAsc()).thenReturn(List.of(new UserRoles(1L, "user"), new UserRoles(2L, "admin")));
+        when(userRepository.findCredentialsByUsername("testuser")).thenReturn(List.of(credentials(1L), credentials(2L)));
+
+        // Act
+        CustomUserDetails userDetails = (CustomUserDetails) userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        assertEquals(List.of("ADMIN", "USER"), userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertTrue(userDetails.getRoles().has(roleDictionary.bit("admin")));
+        assertTrue(userDetails.getRoles().has(roleDictionary.bit("USER")));
+
+        System.out.println("[DEBUG_LOG] Loaded roles: " + userDetails.getRoles());
+    }
+
     @Test
     void testCheckIfUserAlreadyExsist() {
         // Arrange
@@ -122,10 +206,10 @@ public class UserDetailsServiceImplTest {
     void testSignupUser_Success() {
         // Arrange
         when(userValidationService.validte(anyString(), anyString())).thenReturn(null);
+        when(usernameIndex.mightContain(anyString())).thenReturn(true);
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
         when(userRepository.findByUsername(anyString())).thenReturn(null);
         when(userRepository.save(any(UserInfo.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        doNothing().when(userInfoProducer).sendEventToKafka(any(UserInfoDto.class));
 
         // Act
         Boolean result = userDetailsService.signupUser(userInfoDto);
@@ -136,16 +220,55 @@ public class UserDetailsServiceImplTest {
         verify(passwordEncoder).encode(userInfoDto.password());
         verify(userRepository).findByUsername(userInfoDto.username());
         verify(userRepository).save(any(UserInfo.class));
-        verify(userInfoProducer).sendEventToKafka(any(UserInfoDto.class));
+        verify(usernameIndex).add(userInfoDto.username());
+        verifyNoInteractions(userCacheInvalidationProducer);
+        verify(userInfoOutbox).enqueue(any(UserInfoEvent.class));
+        verify(userInfoOutbox).enqueueUsername(userInfoDto.username());
+        assertEquals(1.0, meterRegistry.get(AuthMetrics.EVENT_COUNTER).tag("event", "signup").tag("outcome", "created").counter().count());
+        assertEquals(1, meterRegistry.get(AuthMetrics.STAGE_TIMER).tag("stage", "signup.persist").tag("outcome", "success").timer().count());
         
         System.out.println("[DEBUG_LOG] User signup result: " + result);
     }
 
     @Test
-    void testSignupUser_UserAlreadyExists() {
+    void testSignupUser_DefinitelyFreeUsernameSkipsLookup() {
         // Arrange
         when(userValidationService.validte(anyString(), anyString())).thenReturn(null);
+        when(usernameIndex.mightContain(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(userRepository.save(any(UserInfo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Boolean result = userDetailsService.signupUser(userInfoDto);
+
+        // Assert
+        assertTrue(result);
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(userRepository).save(any(UserInfo.class));
+    }
+
+    @Test
+    void testSignupUser_DuplicateRejectedByDatabase() {
+        // Arrange
+        when(userValidationService.validte(anyString(), anyString())).thenReturn(null);
+        when(usernameIndex.mightContain(anyString())).thenReturn(false);
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(userRepository.save(any(UserInfo.class))).thenThrow(new DataIntegrityViolationException("duplicate username"));
+
+        // Act
+        Boolean result = userDetailsService.signupUser(userInfoDto);
+
+        // Assert
+        assertFalse(result);
+        verify(usernameIndex, never()).add(anyString());
+        verify(userInfoOutbox, never()).enqueue(any(UserInfoEvent.class));
+    }
+
+    @Test
+    void testSignupUser_UserAlreadyExists() {
+        // Arrange
+        when(userValidationService.validte(anyString(), anyString())).thenReturn(null);
+        when(usernameIndex.mightContain(anyString())).thenReturn(true);
         when(userRepository.findByUsername(anyString())).thenReturn(testUser);
 
         // Act
@@ -154,10 +277,10 @@ public class UserDetailsServiceImplTest {
         // Assert
         assertFalse(result);
         verify(userValidationService).validte(userInfoDto.email(), userInfoDto.password());
-        verify(passwordEncoder).encode(userInfoDto.password());
+        verify(passwordEncoder, never()).encode(anyString());
         verify(userRepository).findByUsername(userInfoDto.username());
         verify(userRepository, never()).save(any(UserInfo.class));
-        verify(userInfoProducer, never()).sendEventToKafka(any(UserInfoDto.class));
+        verify(userInfoOutbox, never()).enqueue(any(UserInfoEvent.class));
         
         System.out.println("[DEBUG_LOG] User already exists, signup result: " + result);
     }
@@ -176,38 +299,59 @@ public class UserDetailsServiceImplTest {
         verify(userValidationService).validte(userInfoDto.email(), userInfoDto.password());
         verify(userRepository, never()).findByUsername(anyString());
         verify(userRepository, never()).save(any(UserInfo.class));
-        verify(userInfoProducer, never()).sendEventToKafka(any(UserInfoDto.class));
+        verify(userInfoOutbox, never()).enqueue(any(UserInfoEvent.class));
         
         System.out.println("[DEBUG_LOG] Validation error during signup: " + exception.getMessage());
     }
 
     @Test
-    void testGetAllUsers() {
+    void testGetUsersPage() {
         // Arrange
-        UserInfo user1 = testUser;
-        UserInfo user2 = UserInfo.builder()
-                .userId(UUID.randomUUID().toString())
-                .username("anotheruser")
-                .password("encodedPassword")
-                .firstName("Another")
-                .lastName("User")
-                .email("another@example.com")
-                .phoneNumber(9876543210L)
-                .roles(new HashSet<>())
-                .build();
-        
-        List<UserInfo> userList = Arrays.asList(user1, user2);
-        when(userRepository.findAll()).thenReturn(userList);
+        UserSummary summary = new UserSummary(testUser.getUserId(), "testuser", "Test", "User", "test@example.com", 1234567890L);
+        when(userRepository.findSummariesAfter("", PageRequest.of(0, 50))).thenReturn(List.of(summary));
 
         // Act
-        List<UserInfo> result = userDetailsService.getAllUsers();
+        List<UserSummary> result = userDetailsService.getUsersPage(null, 50);
 
         // Assert
-        assertEquals(2, result.size());
-        assertEquals(user1, result.get(0));
-        assertEquals(user2, result.get(1));
-        verify(userRepository).findAll();
-        
+        assertEquals(List.of(summary), result);
+        verify(userRepository, never()).findAll();
+
         System.out.println("[DEBUG_LOG] Retrieved " + result.size() + " users");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testForEachUserStreamsInsideTransaction() {
+        // Arrange
+        UserSummary first = new UserSummary("id-1", "user1", "User", "One", "user1@example.com", 1L);
+        UserSummary second = new UserSummary("id-2", "user2", "User", "Two", "user2@example.com", 2L);
+        when(userRepository.streamAllSummaries()).thenReturn(Stream.of(first, second));
+        List<UserSummary> seen = new ArrayList<>();
+
+        // Act
+        userDetailsService.forEachUser(seen::add);
+
+        // Assert
+        assertEquals(List.of(first, second), seen);
+        verify(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static UserCredentialsRow credentials(Long roleId) {
+        return new UserCredentialsRow() {
+            @Override
+            public String getUsername() {
+                return "testuser";
+            }
+
+            @Override
+            public String getPassword() {
+                return "encodedPassword";
+            }
+
+            @Override
+            public Long getRoleId() {
+                return roleId;
+            }
+        };
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.eventProducer.UserInfoOutbox;
+import com.example.AuthService.models.UserImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserImportServiceTest {
+
+    private static final String EXISTING_HASH = "$2a$10$abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private UserInfoOutbox userInfoOutbox;
+
+    @Mock
+    private UsernameIndex usernameIndex;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userImportService = new UserImportService(new ObjectMapper(),
+                new UserValidationService(mock(PasswordEncoder.class)),
+                jdbcTemplate,
+                namedParameterJdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                userInfoOutbox,
+                usernameIndex,
+                new AuthMetrics(meterRegistry),
+                4, 2, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userImportService.close();
+    }
+
+    @Test
+    void testImportReportsEveryLineInOrder() throws Exception {
+        // Arrange
+        String ndjson = String.join("\n",
+                user("alice", "\"password\":\"password123\""),
+                user("alice", "\"password\":\"password123\""),
+                "{not json",
+                user("bob", "\"password\":\"short\""),
+                "",
+                user("carol", "\"passwordHash\":\"" + EXISTING_HASH + "\""),
+                user("dave", "\"password\":\"password123\""));
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(String.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of("dave"));
+        List<UserImportResult> results = new ArrayList<>();
+
+        // Act
+        userImportService.importUsers(new BufferedReader(new StringReader(ndjson)), results::addAll);
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L, 4L, 6L, 7L), results.stream().map(UserImportResult::line).toList());
+        assertEquals(List.of("created", "duplicate", "invalid", "invalid", "created", "duplicate"),
+                results.stream().map(UserImportResult::status).toList());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(userInfoOutbox, times(2)).enqueueAll(anyList());
+        verify(userInfoOutbox).enqueueUsernames(List.of("alice"));
+        verify(userInfoOutbox).enqueueUsernames(List.of("carol"));
+        verify(usernameIndex).add("alice");
+        verify(usernameIndex).add("carol");
+        verify(usernameIndex, never()).add("dave");
+        assertEquals(2.0, meterRegistry.get(AuthMetrics.EVENT_COUNTER).tags("event", "import", "outcome", "created").counter().count());
+
+        System.out.println("[DEBUG_LOG] Import results: " + results);
+    }
+
+    @Test
+    void testPreHashedPasswordIsStoredAsIs() throws Exception {
+        // Arrange
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(String.class))).thenReturn(List.of());
+        List<Object[]> rows = captureInsertedUsers();
+
+        // Act
+        userImportService.importUsers(new BufferedReader(new StringReader(
+                user("carol", "\"passwordHash\":\"" + EXISTING_HASH + "\""))), results -> { });
+
+        // Assert
+        assertEquals(1, rows.size());
+        assertEquals(EXISTING_HASH, rows.get(0)[0]);
+    }
+
+    @Test
+    void testDuplicateKeyOnInsertRechecksAndRetries() throws Exception {
+        // Arrange
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(String.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of("alice"));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DuplicateKeyException("users.username"))
+                .thenReturn(new int[][]{{1}});
+        List<UserImportResult> results = new ArrayList<>();
+
+        // Act
+        userImportService.importUsers(new BufferedReader(new StringReader(String.join("\n",
+                user("alice", "\"password\":\"password123\""),
+                user("bob", "\"password\":\"password123\"")))), results::addAll);
+
+        // Assert
+        assertEquals(List.of("duplicate", "created"), results.stream().map(UserImportResult::status).toList());
+        verify(usernameIndex).add("bob");
+        verify(usernameIndex, never()).add("alice");
+    }
+
+    @Test
+    void testUsernamesDifferingOnlyInCaseAreDuplicates() throws Exception {
+        // Arrange
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(String.class))).thenReturn(List.of("BOB"));
+        List<UserImportResult> results = new ArrayList<>();
+
+        // Act
+        userImportService.importUsers(new BufferedReader(new StringReader(String.join("\n",
+                user("Alice", "\"password\":\"password123\""),
+                user("alice", "\"password\":\"password123\""),
+                user("bob", "\"password\":\"password123\"")))), results::addAll);
+
+        // Assert
+        assertEquals(List.of("created", "duplicate", "duplicate"), results.stream().map(UserImportResult::status).toList());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        System.out.println("[DEBUG_LOG] Case-insensitive results: " + results);
+    }
+
+    @Test
+    void testFailedRetryFallsBackToPerRowInserts() throws Exception {
+        // Arrange
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(String.class))).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DuplicateKeyException("users.username"))
+                .thenThrow(new DuplicateKeyException("users.username"))
+                .thenThrow(new DuplicateKeyException("users.username"))
+                .thenReturn(new int[][]{{1}});
+        List<UserImportResult> results = new ArrayList<>();
+
+        // Act
+        userImportService.importUsers(new BufferedReader(new StringReader(String.join("\n",
+                user("alice", "\"password\":\"password123\""),
+                user("bob", "\"password\":\"password123\"")))), results::addAll);
+
+        // Assert
+        assertEquals(List.of("duplicate", "created"), results.stream().map(UserImportResult::status).toList());
+        verify(jdbcTemplate, times(4)).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(usernameIndex).add("bob");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> captureInsertedUsers() {
+        List<Object[]> rows = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    PreparedStatement statement = mock(PreparedStatement.class);
+                    ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+                    for (Object candidate : (Collection<Object>) invocation.getArgument(1)) {
+                        setter.setValues(statement, candidate);
+                    }
+                    ArgumentCaptor<String> password = ArgumentCaptor.forClass(String.class);
+                    verify(statement, atLeastOnce()).setString(eq(3), password.capture());
+                    password.getAllValues().forEach(value -> rows.add(new Object[]{value}));
+                    return new int[][]{{1}};
+                });
+        return rows;
+    }
+
+    private static String user(String username, String password) {
+        return "{\"username\":\"" + username + "\"," + password
+                + ",\"firstName\":\"F\",\"lastName\":\"L\",\"email\":\"" + username + "@example.com\",\"phoneNumber\":9999999999}";
+    }
+}
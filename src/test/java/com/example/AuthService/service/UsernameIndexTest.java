@@ -0,0 +1,86 @@
+package com.example.AuthService.service;
+
+import com.example.AuthService.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UsernameIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UsernameIndex usernameIndex;
+
+    @BeforeEach
+    void setUp() {
+        usernameIndex = new UsernameIndex(10_000, 0.01, userRepository, transactionManager);
+    }
+
+    @Test
+    void testEverythingMaybeTakenUntilWarmed() {
+        // Assert
+        assertFalse(usernameIndex.isReady());
+        assertTrue(usernameIndex.mightContain("anyone"));
+    }
+
+    @Test
+    void testWarmLoadsExistingUsernames() {
+        // Arrange
+        when(userRepository.streamAllUsernames()).thenReturn(Stream.of("alice", "bob"));
+
+        // Act
+        usernameIndex.warm();
+        usernameIndex.add("carol");
+
+        // Assert
+        assertTrue(usernameIndex.isReady());
+        assertTrue(usernameIndex.mightContain("alice"));
+        assertTrue(usernameIndex.mightContain("bob"));
+        assertTrue(usernameIndex.mightContain("carol"));
+    }
+
+    @Test
+    void testCaseVariantsOfATakenUsernameAreMaybeTaken() {
+        // Arrange
+        when(userRepository.streamAllUsernames()).thenReturn(Stream.of("Alice"));
+
+        // Act
+        usernameIndex.warm();
+        usernameIndex.add("carol");
+
+        // Assert
+        assertTrue(usernameIndex.mightContain("alice"));
+        assertTrue(usernameIndex.mightContain("ALICE"));
+        assertTrue(usernameIndex.mightContain("Carol"));
+    }
+
+    @Test
+    void testFalsePositiveRateIsBounded() {
+        // Arrange
+        when(userRepository.streamAllUsernames()).thenReturn(IntStream.range(0, 10_000).mapToObj(i -> "user" + i));
+        usernameIndex.warm();
+
+        // Act
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> usernameIndex.mightContain("other" + i))
+                .count();
+
+        // Assert
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        System.out.println("[DEBUG_LOG] Username index false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.AuthService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedTokenCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache tokenCache;
+    private AtomicInteger verifications;
+    private Function<String, ValidatedToken> verifier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenCache = new VerifiedTokenCache(true, 100, meterRegistry);
+        verifications = new AtomicInteger();
+        verifier = token -> {
+            verifications.incrementAndGet();
+            return new ValidatedToken("testuser", Instant.now().plusSeconds(3600), null, null);
+        };
+    }
+
+    @Test
+    void testRepeatedTokenIsVerifiedOnce() {
+        // Act
+        ValidatedToken first = tokenCache.get("token-a", 0, verifier);
+        ValidatedToken second = tokenCache.get("token-a", 0, verifier);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        System.out.println("[DEBUG_LOG] Verifications for repeated token: " + verifications.get());
+    }
+
+    @Test
+    void testKeyRotationForcesReverification() {
+        // Act
+        tokenCache.get("token-a", 0, verifier);
+        tokenCache.get("token-a", 1, verifier);
+
+        // Assert
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void testFailedVerificationIsNotCached() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> tokenCache.get("bad-token", 0, token -> {
+            throw new IllegalStateException("bad signature");
+        }));
+        tokenCache.get("bad-token", 0, verifier);
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void testDisabledCacheAlwaysVerifies() {
+        // Arrange
+        VerifiedTokenCache disabled = VerifiedTokenCache.disabled();
+
+        // Act
+        disabled.get("token-a", 0, verifier);
+        disabled.get("token-a", 0, verifier);
+
+        // Assert
+        assertEquals(2, verifications.get());
+    }
+}